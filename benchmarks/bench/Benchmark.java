@@ -0,0 +1,98 @@
+package bench;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Простой измеритель: прогрев, затем замеры отдельных вызовов с подсчетом
+ * пропускной способности, выделенной памяти на вызов и процентилей задержки.
+ * Подготовка состояния (setup) в замер не входит
+ */
+public class Benchmark {
+
+    /**
+     * Подготовка состояния для одного вызова
+     */
+    public interface Setup<S> {
+        S create() throws Exception;
+    }
+
+    /**
+     * Измеряемая операция; ее результат сохраняется в blackhole
+     */
+    public interface Operation<S> {
+        Object run(S state) throws Exception;
+    }
+
+    private final int warmupIterations;
+    private final int measureIterations;
+    private final com.sun.management.ThreadMXBean threads;
+
+    // Результаты операций; запись в volatile-поле не дает JIT выбросить вычисление как неиспользуемое
+    private volatile Object blackhole;
+
+    public Benchmark(int warmupIterations, int measureIterations) {
+        this.warmupIterations = warmupIterations;
+        this.measureIterations = measureIterations;
+
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean sunBean && sunBean.isThreadAllocatedMemorySupported()) {
+            sunBean.setThreadAllocatedMemoryEnabled(true);
+            this.threads = sunBean;
+        } else {
+            this.threads = null;
+        }
+    }
+
+    /**
+     * @param bytesPerOp объем обрабатываемых данных за вызов, для расчета МБ/с
+     */
+    public <S> BenchmarkResult measure(String name, long bytesPerOp, Setup<S> setup, Operation<S> operation)
+            throws Exception {
+        for (int i = 0; i < warmupIterations; i++) {
+            blackhole = operation.run(setup.create());
+        }
+
+        long[] nanos = new long[measureIterations];
+        long allocated = 0;
+        boolean allocationSupported = threads != null;
+
+        for (int i = 0; i < measureIterations; i++) {
+            S state = setup.create();
+
+            long allocatedBefore = allocationSupported ? threads.getCurrentThreadAllocatedBytes() : 0;
+            long start = System.nanoTime();
+            blackhole = operation.run(state);
+            nanos[i] = System.nanoTime() - start;
+            if (allocationSupported) {
+                // -1 - учет недоступен для текущего потока (например, виртуального)
+                long allocatedAfter = threads.getCurrentThreadAllocatedBytes();
+                if (allocatedBefore < 0 || allocatedAfter < allocatedBefore) {
+                    allocationSupported = false;
+                } else {
+                    allocated += allocatedAfter - allocatedBefore;
+                }
+            }
+        }
+
+        Arrays.sort(nanos);
+        long total = 0;
+        for (long n : nanos) {
+            total += n;
+        }
+
+        return new BenchmarkResult(name, bytesPerOp, measureIterations, total,
+                percentile(nanos, 0.50), percentile(nanos, 0.90), percentile(nanos, 0.99),
+                nanos[nanos.length - 1],
+                allocationSupported ? allocated / measureIterations : -1);
+    }
+
+    public BenchmarkResult measure(String name, long bytesPerOp, Operation<Void> operation) throws Exception {
+        return measure(name, bytesPerOp, () -> null, operation);
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
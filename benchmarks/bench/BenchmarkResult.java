@@ -0,0 +1,80 @@
+package bench;
+
+/**
+ * Результат замера одной операции
+ */
+public class BenchmarkResult {
+    private final String name;
+    private final long bytesPerOp;
+    private final int iterations;
+    private final long totalNanos;
+    private final long p50Nanos;
+    private final long p90Nanos;
+    private final long p99Nanos;
+    private final long maxNanos;
+    private final long allocatedBytesPerOp;
+
+    public BenchmarkResult(String name, long bytesPerOp, int iterations, long totalNanos,
+                           long p50Nanos, long p90Nanos, long p99Nanos, long maxNanos,
+                           long allocatedBytesPerOp) {
+        this.name = name;
+        this.bytesPerOp = bytesPerOp;
+        this.iterations = iterations;
+        this.totalNanos = totalNanos;
+        this.p50Nanos = p50Nanos;
+        this.p90Nanos = p90Nanos;
+        this.p99Nanos = p99Nanos;
+        this.maxNanos = maxNanos;
+        this.allocatedBytesPerOp = allocatedBytesPerOp;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Пропускная способность в мегабайтах входных данных в секунду
+     */
+    public double getThroughputMbPerSecond() {
+        return bytesPerOp * (double) iterations / 1_000_000.0 / (totalNanos / 1_000_000_000.0);
+    }
+
+    public double getOpsPerSecond() {
+        return iterations / (totalNanos / 1_000_000_000.0);
+    }
+
+    public long getP50Nanos() {
+        return p50Nanos;
+    }
+
+    public long getP90Nanos() {
+        return p90Nanos;
+    }
+
+    public long getP99Nanos() {
+        return p99Nanos;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    /**
+     * Байты, выделенные вызывающим потоком за один вызов, или -1, если JVM это не поддерживает
+     */
+    public long getAllocatedBytesPerOp() {
+        return allocatedBytesPerOp;
+    }
+
+    public static String header() {
+        return String.format("%-40s %10s %10s %10s %10s %10s %10s %14s",
+                "Операция", "МБ/с", "оп/с", "p50 мс", "p90 мс", "p99 мс", "max мс", "байт/оп");
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-40s %10.1f %10.1f %10.3f %10.3f %10.3f %10.3f %14d",
+                name, getThroughputMbPerSecond(), getOpsPerSecond(),
+                p50Nanos / 1e6, p90Nanos / 1e6, p99Nanos / 1e6, maxNanos / 1e6, allocatedBytesPerOp);
+    }
+}
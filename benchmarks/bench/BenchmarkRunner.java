@@ -0,0 +1,337 @@
+package bench;
+
+import binary.BinaryFormat;
+import binary.BinaryReader;
+import binary.BinaryWriter;
+import entity.*;
+import exception.FileProcessingException;
+import exception.TextProcessingException;
+import metrics.ProcessingMetrics;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.config.Configurator;
+import parse.ParagraphReader;
+import parse.ParseCache;
+import parse.TextParser;
+import processors.*;
+import read.Reader;
+import read.TextSource;
+import run.PipelinedExecutor;
+import run.Runner;
+import write.Writer;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Набор замеров для всех этапов обработки: чтение, парсинг, процессоры, сборка текста,
+ * запись и полный цикл как в Runner. Корпуса генерируются CorpusGenerator.
+ * Корпуса больше MAX_IN_MEMORY_SIZE не загружаются в память: для них выполняются
+ * только потоковые замеры (чтение, разбор и полный цикл по абзацам).
+ * Проверка совпадения с прежними реализациями - DifferentialCheck.
+ * Замеры лежат в отдельном корне исходников benchmarks (тестовые исходники модуля)
+ * и не попадают в сборку приложения из src.
+ * <p>
+ * Аргументы: --sizes 1K,1M,64M,1G --alphabet MIXED|CYRILLIC|LATIN
+ * --warmup N --iterations N --dir каталог_для_файлов --log (не отключать логирование)
+ */
+public class BenchmarkRunner {
+    /**
+     * Наибольший размер корпуса (в символах), который читается в строку и разбирается в одно дерево
+     */
+    static final long MAX_IN_MEMORY_SIZE = 64L * 1024 * 1024;
+
+    private final Benchmark benchmark;
+    private final Path directory;
+    private final List<BenchmarkResult> results = new ArrayList<>();
+
+    public BenchmarkRunner(Benchmark benchmark, Path directory) {
+        this.benchmark = benchmark;
+        this.directory = directory;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String sizes = "1K,1M,16M";
+        CorpusGenerator.Alphabet alphabet = CorpusGenerator.Alphabet.MIXED;
+        int warmup = 3;
+        int iterations = 10;
+        Path directory = null;
+        boolean keepLogging = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--sizes" -> sizes = args[++i];
+                case "--alphabet" -> alphabet = CorpusGenerator.Alphabet.valueOf(args[++i].toUpperCase(Locale.ROOT));
+                case "--warmup" -> warmup = Integer.parseInt(args[++i]);
+                case "--iterations" -> iterations = Integer.parseInt(args[++i]);
+                case "--dir" -> directory = Path.of(args[++i]);
+                case "--log" -> keepLogging = true;
+                default -> throw new IllegalArgumentException("Неизвестный аргумент: " + args[i]);
+            }
+        }
+
+        if (!keepLogging) {
+            Configurator.setAllLevels(LogManager.ROOT_LOGGER_NAME, Level.OFF);
+        }
+        if (directory == null) {
+            directory = Files.createTempDirectory("text-bench");
+        }
+
+        BenchmarkRunner runner = new BenchmarkRunner(new Benchmark(warmup, iterations), directory);
+        for (String size : sizes.split(",")) {
+            runner.runAll(parseSize(size.trim()), alphabet);
+        }
+    }
+
+    /**
+     * Выполняет все замеры на корпусе заданного размера (в символах)
+     */
+    public void runAll(long size, CorpusGenerator.Alphabet alphabet) throws Exception {
+        Path input = directory.resolve("corpus-" + alphabet + "-" + size + ".txt");
+        Path output = directory.resolve("output-" + alphabet + "-" + size + ".txt");
+        if (!Files.exists(input)) {
+            new CorpusGenerator(42, alphabet).write(input, size);
+        }
+
+        long bytes = Files.size(input);
+        String inputFile = input.toString();
+        String outputFile = output.toString();
+
+        if (size > MAX_IN_MEMORY_SIZE) {
+            System.out.printf("%n=== Корпус %s, %d символов, %d байт, только потоковые замеры ===%n",
+                    alphabet, size, bytes);
+            System.out.println(BenchmarkResult.header());
+            runStreaming(inputFile, outputFile, bytes);
+            return;
+        }
+
+        String text = Reader.readFile(inputFile);
+
+        System.out.printf("%n=== Корпус %s, %d символов, %d байт ===%n", alphabet, text.length(), bytes);
+        System.out.println(BenchmarkResult.header());
+
+        TextParser parser = new TextParser();
+        TextParser parallelParser = new TextParser(ForkJoinPool.commonPool());
+
+        record("read.readFile", bytes, v -> Reader.readFile(inputFile));
+        record("read.mapFile", bytes, v -> Reader.mapFile(inputFile, StandardCharsets.UTF_8));
+        recordReadLines(inputFile, bytes);
+
+        record("parse.sequential", bytes, v -> parser.parse(text));
+        record("parse.parallel", bytes, v -> parallelParser.parse(text));
+        record("parse.compact", bytes, v -> parser.parseCompact(text));
+        record("parse.lazy", bytes, v -> parser.parseLazy(text, null));
+        ParseCache cache = new ParseCache(parser, 16, Long.MAX_VALUE);
+        cache.parse(text);
+        record("parse.cache.hit", bytes, v -> cache.parse(text));
+        record("parse.cache.hit.shared", bytes, v -> cache.parseShared(text));
+        ProcessorPipeline cachedPipeline = ProcessorPipeline.builder()
+                .add(new SubstringRemovalProcessor('(', ')'))
+                .add(new WhitespaceProcessor())
+                .build();
+        record("process.cache.hit", bytes, v -> cache.process(text, "removal,whitespace|()", cachedPipeline));
+
+        recordOnTree("process.substring.inPlace", bytes, parser, text,
+                document -> process(document, new SubstringRemovalProcessor('(', ')')));
+        recordOnTree("process.substring.text", bytes, parser, text,
+                document -> process(document, new SubstringRemovalProcessor('(', ')', false)));
+        recordOnTree("process.multiDelimiter", bytes, parser, text,
+                document -> process(document, new MultiDelimiterRemovalProcessor(
+                        new DelimiterPair('(', ')'), new DelimiterPair('[', ']'),
+                        new DelimiterPair('"', '"'), new DelimiterPair("/*", "*/"))));
+        recordOnTree("process.whitespace.sentence", bytes, parser, text,
+                document -> run(ProcessorPipeline.builder().add(new WhitespaceProcessor()).build(), document));
+        recordOnTree("process.whitespace.perLeaf", bytes, parser, text,
+                document -> process(document, new PerLeafWhitespaceProcessor()));
+        recordOnTree("process.chain", bytes, parser, text, document -> {
+            SubstringRemovalProcessor removal = new SubstringRemovalProcessor('(', ')');
+            removal.setNext(new WhitespaceProcessor());
+            return process(document, removal);
+        });
+        recordOnTree("process.pipeline", bytes, parser, text,
+                document -> run(createPipeline(), document));
+        recordOnTree("process.pipeline.parallel", bytes, parser, text,
+                document -> {
+                    createPipeline().run(document, ForkJoinPool.commonPool());
+                    return document;
+                });
+        ProcessingMetrics metrics = new ProcessingMetrics();
+        recordOnTree("process.pipeline.metrics", bytes, parser, text,
+                document -> run(ProcessorPipeline.builder()
+                        .add(new SubstringRemovalProcessor('(', ')'))
+                        .add(new WhitespaceProcessor())
+                        .metrics(metrics)
+                        .build(), document));
+
+        recordOnTree("tree.freeze", bytes, parser, text, document -> ((CompositeTool) document).freeze());
+        recordOnTree("text.getText", bytes, parser, text, Component::getText);
+        String rendered = parser.parse(text).getText();
+        record("write.writeFile", bytes, v -> {
+            Writer.writeFile(outputFile, rendered);
+            return rendered;
+        });
+        recordOnTree("write.writeComponent", bytes, parser, text,
+                document -> Writer.writeComponent(outputFile, document, StandardCharsets.UTF_8, false, false));
+        recordOnTree("write.writeComponent.atomic", bytes, parser, text,
+                document -> Writer.writeComponent(outputFile, document, StandardCharsets.UTF_8, true, false));
+
+        String binaryFile = directory.resolve("corpus-" + alphabet + "-" + size + ".txdb").toString();
+        recordOnTree("binary.write", bytes, parser, text,
+                document -> BinaryWriter.write(binaryFile, document, BinaryFormat.Encoding.UTF_16, false, false));
+        record("binary.map", bytes, v -> BinaryReader.map(binaryFile));
+        record("binary.read", bytes, v -> BinaryReader.read(binaryFile));
+
+        record("endToEnd", bytes, v -> {
+            Component document = parser.parse(Reader.readFile(inputFile));
+            createPipeline().run(document);
+            return Writer.writeComponent(outputFile, document, StandardCharsets.UTF_8, false, false);
+        });
+        record("endToEnd.lazy", bytes, v -> {
+            Component document = parser.parseLazy(Reader.readFile(inputFile), null);
+            createPipeline().run(document);
+            return Writer.writeComponent(outputFile, document, StandardCharsets.UTF_8, false, false);
+        });
+    }
+
+    /**
+     * Потоковые замеры: вход читается по абзацам через ParagraphReader, как в режиме
+     * --streaming, поэтому в памяти держится только текущий абзац или пачка абзацев
+     */
+    private void runStreaming(String inputFile, String outputFile, long bytes) throws Exception {
+        recordReadLines(inputFile, bytes);
+        record("parse.stream", bytes, v -> {
+            try (ParagraphReader reader = new ParagraphReader(Reader.openFile(inputFile, StandardCharsets.UTF_8))) {
+                int elements = 0;
+                for (CompositeTool paragraph = reader.next(); paragraph != null; paragraph = reader.next()) {
+                    elements += paragraph.childCount();
+                }
+                return elements;
+            }
+        });
+
+        Runner runner = new Runner();
+        record("endToEnd.stream", bytes, v -> {
+            try (ParagraphReader reader = new ParagraphReader(Reader.openFile(inputFile, StandardCharsets.UTF_8))) {
+                ProcessorPipeline pipeline = createPipeline();
+                return Writer.writeFile(outputFile, out -> runner.processStream(reader, out, pipeline, false),
+                        StandardCharsets.UTF_8, false, false);
+            }
+        });
+
+        PipelinedExecutor executor = new PipelinedExecutor(BenchmarkRunner::createPipeline,
+                Runtime.getRuntime().availableProcessors(), null);
+        record("endToEnd.pipelined", bytes, v -> {
+            try (ParagraphReader reader = new ParagraphReader(Reader.openFile(inputFile, StandardCharsets.UTF_8))) {
+                return Writer.writeFile(outputFile, out -> {
+                    try {
+                        executor.execute(reader, out, false);
+                    } catch (FileProcessingException e) {
+                        throw e;
+                    } catch (TextProcessingException e) {
+                        throw new FileProcessingException("Конвейерная обработка остановлена", e);
+                    }
+                }, StandardCharsets.UTF_8, false, false);
+            }
+        });
+    }
+
+    private void recordReadLines(String inputFile, long bytes) throws Exception {
+        record("read.TextSource.readLine", bytes, v -> {
+            try (TextSource source = Reader.openFile(inputFile, StandardCharsets.UTF_8)) {
+                StringBuilder line = new StringBuilder();
+                long length = 0;
+                while (source.readLine(line)) {
+                    length += line.length();
+                }
+                return length;
+            }
+        });
+    }
+
+    /**
+     * Обрабатывает документ и возвращает его как результат замера
+     */
+    private static Component process(Component document, TextProcessor processor) {
+        document.process(processor);
+        return document;
+    }
+
+    private static Component run(ProcessorPipeline pipeline, Component document) {
+        pipeline.run(document);
+        return document;
+    }
+
+    private static ProcessorPipeline createPipeline() {
+        return ProcessorPipeline.builder()
+                .add(new SubstringRemovalProcessor('(', ')'))
+                .add(new WhitespaceProcessor())
+                .build();
+    }
+
+    public List<BenchmarkResult> getResults() {
+        return results;
+    }
+
+    private void record(String name, long bytes, Benchmark.Operation<Void> operation) throws Exception {
+        BenchmarkResult result = benchmark.measure(name, bytes, operation);
+        results.add(result);
+        System.out.println(result);
+    }
+
+    private void recordOnTree(String name, long bytes, TextParser parser, String text,
+                              Benchmark.Operation<Component> operation) throws Exception {
+        BenchmarkResult result = benchmark.measure(name, bytes, () -> parser.parse(text), operation);
+        results.add(result);
+        System.out.println(result);
+    }
+
+    static long parseSize(String size) {
+        String upper = size.toUpperCase(Locale.ROOT);
+        long multiplier = 1;
+        if (upper.endsWith("K")) {
+            multiplier = 1024;
+        } else if (upper.endsWith("M")) {
+            multiplier = 1024 * 1024;
+        } else if (upper.endsWith("G")) {
+            multiplier = 1024L * 1024 * 1024;
+        }
+        String digits = multiplier == 1 ? upper : upper.substring(0, upper.length() - 1);
+        return Long.parseLong(digits) * multiplier;
+    }
+
+    /**
+     * Прежняя реализация WhitespaceProcessor, обрабатывавшая каждый лист отдельно;
+     * оставлена только для сравнения
+     */
+    private static class PerLeafWhitespaceProcessor extends TextProcessor {
+        private boolean previousWasWhitespace = false;
+
+        @Override
+        public void process(CharacterLeaf character) {
+            char value = character.getValue();
+
+            if (value == ' ' || value == '\t') {
+                if (!previousWasWhitespace) {
+                    previousWasWhitespace = true;
+
+                    TextProcessor next = getNextProcessor();
+                    if (next != null) {
+                        next.process(LeafFactory.character(' '));
+                    }
+                }
+            } else {
+                previousWasWhitespace = false;
+
+                TextProcessor next = getNextProcessor();
+                if (next != null) {
+                    next.process(character);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package bench;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Генератор синтетических текстов в формате resources/input.txt:
+ * абзацы с красной строкой, многострочные абзацы со списками,
+ * повторяющиеся пробелы, скобки и знаки препинания
+ */
+public class CorpusGenerator {
+
+    public enum Alphabet {
+        CYRILLIC, LATIN, MIXED
+    }
+
+    private static final String[] CYRILLIC_WORDS = {
+            "программирование", "это", "процесс", "создания", "компьютерных", "программ",
+            "для", "написания", "необходимо", "понимать", "основные", "концепции", "и",
+            "уметь", "применять", "их", "на", "практике", "объект", "класс", "парадигма",
+            "в", "которой", "используются", "следующие", "принципы", "работа", "с", "текстом",
+            "шаблоны", "проектирования", "помогают", "создавать", "гибкие", "приложения"
+    };
+
+    private static final String[] LATIN_WORDS = {
+            "Java", "Composite", "Chain", "of", "Responsibility", "Singleton", "Factory",
+            "Method", "pattern", "object", "class", "stream", "parser", "text", "value",
+            "interface", "abstract", "leaf", "node", "tree", "buffer", "channel", "OOP", "API"
+    };
+
+    private final Random random;
+    private final Alphabet alphabet;
+
+    public CorpusGenerator(long seed, Alphabet alphabet) {
+        this.random = new Random(seed);
+        this.alphabet = alphabet;
+    }
+
+    /**
+     * Генерирует текст длиной не меньше size символов
+     */
+    public String generate(int size) {
+        StringBuilder sb = new StringBuilder(size + 1024);
+        while (sb.length() < size) {
+            appendParagraph(sb);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Записывает в файл текст длиной не меньше size символов, не держа его в памяти целиком
+     */
+    public void write(Path file, long size) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            StringBuilder sb = new StringBuilder(4096);
+            long written = 0;
+            while (written < size) {
+                sb.setLength(0);
+                appendParagraph(sb);
+                writer.append(sb);
+                written += sb.length();
+            }
+        }
+    }
+
+    private void appendParagraph(StringBuilder sb) {
+        sb.append(random.nextInt(20) == 0 ? "\t" : "    ");
+
+        int sentences = 1 + random.nextInt(4);
+        for (int s = 0; s < sentences; s++) {
+            if (s > 0) {
+                sb.append(' ');
+            }
+            appendSentence(sb);
+        }
+
+        if (random.nextInt(6) == 0) {
+            sb.append(':');
+            int items = 2 + random.nextInt(3);
+            for (int i = 0; i < items; i++) {
+                sb.append("\n        - ");
+                appendWords(sb, 2 + random.nextInt(5));
+                sb.append(i == items - 1 ? '.' : ';');
+            }
+        }
+
+        sb.append("\n\n");
+    }
+
+    private void appendSentence(StringBuilder sb) {
+        int words = 4 + random.nextInt(14);
+        int bracketAt = random.nextInt(3) == 0 ? random.nextInt(words) : -1;
+
+        for (int w = 0; w < words; w++) {
+            if (w > 0) {
+                sb.append(random.nextInt(8) == 0 ? "    " : " ");
+            }
+            if (w == bracketAt) {
+                sb.append('(');
+                appendWords(sb, 1 + random.nextInt(5));
+                sb.append(')');
+            } else {
+                sb.append(word());
+                if (random.nextInt(10) == 0) {
+                    sb.append(',');
+                }
+            }
+        }
+
+        int end = random.nextInt(10);
+        sb.append(end == 0 ? '!' : end == 1 ? '?' : '.');
+    }
+
+    private void appendWords(StringBuilder sb, int count) {
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(word());
+        }
+    }
+
+    private String word() {
+        switch (alphabet) {
+            case CYRILLIC:
+                return CYRILLIC_WORDS[random.nextInt(CYRILLIC_WORDS.length)];
+            case LATIN:
+                return LATIN_WORDS[random.nextInt(LATIN_WORDS.length)];
+            case MIXED:
+            default:
+                return random.nextInt(4) == 0
+                        ? LATIN_WORDS[random.nextInt(LATIN_WORDS.length)]
+                        : CYRILLIC_WORDS[random.nextInt(CYRILLIC_WORDS.length)];
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package bench;
+
+import entity.*;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.config.Configurator;
+import parse.TextParser;
+import processors.DelimiterPair;
+import processors.MultiDelimiterRemovalProcessor;
+import processors.SubstringRemovalProcessor;
+import processors.TextProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Сверка однопроходных реализаций с прежними на случайных входах:
+ * <ul>
+ *     <li>TextParser (TextScanner) - с прежним парсером на split по регулярным выражениям:
+ *     имена, типы и листья деревьев;</li>
+ *     <li>SubstringRemovalProcessor (findMaxSpan) - с поиском самого длинного совпадения
+ *     'S.*?E' через Pattern, в обоих режимах;</li>
+ *     <li>MultiDelimiterRemovalProcessor с одной парой символов - с SubstringRemovalProcessor.</li>
+ * </ul>
+ * Аргументы: --count N (по умолчанию 200000) --seed N --log (не отключать логирование).
+ * Код завершения 1, если найдены расхождения
+ */
+public class DifferentialCheck {
+    private static final String PARSE_ALPHABET =
+            "abcxyzабвэюя019.!?,;:()\"-          \t\t\n\n\n\r\f\u000B";
+    private static final String SENTENCE_ALPHABET = "abcxyzабв01.,!?()[]\"\" \u0085\u2028     ";
+    private static final char[][] PAIRS = {{'(', ')'}, {'[', ']'}, {'"', '"'}, {'a', 'b'}};
+
+    private final Random random;
+    private final TextParser parser = new TextParser();
+    private final LegacyParser legacyParser = new LegacyParser();
+    private int mismatches;
+
+    public DifferentialCheck(long seed) {
+        this.random = new Random(seed);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int count = 200_000;
+        long seed = 42;
+        boolean keepLogging = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--count" -> count = Integer.parseInt(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--log" -> keepLogging = true;
+                default -> throw new IllegalArgumentException("Неизвестный аргумент: " + args[i]);
+            }
+        }
+
+        if (!keepLogging) {
+            Configurator.setAllLevels(LogManager.ROOT_LOGGER_NAME, Level.OFF);
+        }
+
+        DifferentialCheck check = new DifferentialCheck(seed);
+        int total = check.checkParser(count) + check.checkRemoval(count) + check.checkMultiDelimiter(count);
+        System.exit(total == 0 ? 0 : 1);
+    }
+
+    /**
+     * Сравнивает деревья TextParser и прежнего парсера. Возвращает число расхождений
+     */
+    public int checkParser(int count) throws Exception {
+        mismatches = 0;
+        for (int i = 0; i < count; i++) {
+            String text = randomText(PARSE_ALPHABET, 1 + random.nextInt(200), true);
+            report("parse", text, compare(legacyParser.parse(text), parser.parse(text), true, "document"));
+        }
+        return summary("parse: TextParser / regex", count);
+    }
+
+    /**
+     * Сравнивает результат SubstringRemovalProcessor в обоих режимах с удалением
+     * самого длинного совпадения 'S.*?E' и прежней перестройкой предложения
+     */
+    public int checkRemoval(int count) throws Exception {
+        mismatches = 0;
+        for (int i = 0; i < count; i++) {
+            String text = randomText(SENTENCE_ALPHABET, 1 + random.nextInt(80), false);
+            char[] pair = PAIRS[random.nextInt(PAIRS.length)];
+            Pattern pattern = Pattern.compile(Pattern.quote(String.valueOf(pair[0])) + ".*?"
+                    + Pattern.quote(String.valueOf(pair[1])));
+
+            Component textMode = process(text, () -> new SubstringRemovalProcessor(pair[0], pair[1], false));
+            Component inPlace = process(text, () -> new SubstringRemovalProcessor(pair[0], pair[1]));
+
+            List<CompositeTool> original = sentences(parser.parse(text));
+            List<CompositeTool> processed = sentences(textMode);
+            String difference = null;
+            for (int s = 0; s < original.size() && difference == null; s++) {
+                String expected = removeLongestMatch(original.get(s).getText(), pattern);
+                String actual = processed.get(s).getText();
+                if (!expected.equals(actual)) {
+                    difference = "sentence_" + s + ": ожидалось '" + expected + "', получено '" + actual + "'";
+                }
+            }
+            if (difference == null) {
+                difference = compare(textMode, inPlace, false, "document");
+            }
+            report("removal " + pair[0] + pair[1], text, difference);
+        }
+        return summary("removal: findMaxSpan / 'S.*?E', text / inPlace", count);
+    }
+
+    /**
+     * Сравнивает MultiDelimiterRemovalProcessor с одной парой символов и SubstringRemovalProcessor
+     */
+    public int checkMultiDelimiter(int count) throws Exception {
+        mismatches = 0;
+        for (int i = 0; i < count; i++) {
+            String text = randomText(SENTENCE_ALPHABET, 1 + random.nextInt(80), false);
+            char[] pair = PAIRS[random.nextInt(PAIRS.length)];
+            report("multiDelimiter " + pair[0] + pair[1], text, compare(
+                    process(text, () -> new SubstringRemovalProcessor(pair[0], pair[1])),
+                    process(text, () -> new MultiDelimiterRemovalProcessor(new DelimiterPair(pair[0], pair[1]))),
+                    false, "document"));
+        }
+        return summary("multiDelimiter: одна пара / SubstringRemovalProcessor", count);
+    }
+
+    private Component process(String text, Supplier<TextProcessor> processor) throws Exception {
+        Component document = parser.parse(text);
+        document.process(processor.get());
+        return document;
+    }
+
+    /**
+     * Прежнее удаление: самое длинное совпадение (при равной длине - первое),
+     * затем разбиение остатка на слова по \s+
+     */
+    private static String removeLongestMatch(String sentence, Pattern pattern) {
+        Matcher matcher = pattern.matcher(sentence);
+        int bestStart = -1;
+        int bestEnd = -1;
+        while (matcher.find()) {
+            if (matcher.end() - matcher.start() > bestEnd - bestStart) {
+                bestStart = matcher.start();
+                bestEnd = matcher.end();
+            }
+        }
+        if (bestStart < 0) {
+            return sentence;
+        }
+
+        String rest = sentence.substring(0, bestStart) + sentence.substring(bestEnd);
+        List<String> words = new ArrayList<>();
+        for (String word : rest.split("\\s+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return String.join(" ", words);
+    }
+
+    private static List<CompositeTool> sentences(Component document) {
+        List<CompositeTool> sentences = new ArrayList<>();
+        ComponentCursor cursor = new ComponentCursor(document);
+        while (cursor.next()) {
+            if (cursor.current() instanceof CompositeTool composite
+                    && composite.getType() == CompositeTool.CompositeType.SENTENCE) {
+                sentences.add(composite);
+                cursor.skipChildren();
+            }
+        }
+        return sentences;
+    }
+
+    /**
+     * Возвращает описание первого расхождения деревьев или null, если они совпадают.
+     * Имена слов после удаления не сравниваются: перестройка по тексту нумерует слова
+     * заново, а удаление на месте оставляет прежние имена
+     */
+    private static String compare(Component expected, Component actual, boolean names, String path) {
+        if (expected instanceof CompositeTool e && actual instanceof CompositeTool a) {
+            if (e.getType() != a.getType() || names && !e.getName().equals(a.getName())) {
+                return path + ": " + e.getType() + " " + e.getName() + " / " + a.getType() + " " + a.getName();
+            }
+            if (e.childCount() != a.childCount()) {
+                return path + ": детей " + e.childCount() + " / " + a.childCount();
+            }
+            for (int i = 0; i < e.childCount(); i++) {
+                String difference = compare(e.getChild(i), a.getChild(i), names, path + "/" + i);
+                if (difference != null) {
+                    return difference;
+                }
+            }
+            return null;
+        }
+        if (expected instanceof TextLeaf e && actual instanceof TextLeaf a
+                && e.getClass() == a.getClass() && e.getValue() == a.getValue()) {
+            return null;
+        }
+        return path + ": " + expected + " / " + actual;
+    }
+
+    private String randomText(String alphabet, int length, boolean redLines) {
+        StringBuilder sb = new StringBuilder(length + 8);
+        for (int i = 0; i < length; i++) {
+            char c = alphabet.charAt(random.nextInt(alphabet.length()));
+            sb.append(c);
+            if (redLines && c == '\n' && random.nextInt(3) == 0) {
+                sb.append(random.nextBoolean() ? "    " : "\t");
+            }
+        }
+        return sb.toString();
+    }
+
+    private void report(String check, String input, String difference) {
+        if (difference == null) {
+            return;
+        }
+        if (mismatches++ < 5) {
+            System.out.printf("Расхождение (%s) на входе '%s': %s%n", check, escape(input), difference);
+        }
+    }
+
+    private int summary(String check, int count) {
+        System.out.printf("%s: входов %d, расхождений %d%n", check, count, mismatches);
+        return mismatches;
+    }
+
+    private static String escape(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < ' ' || c > '~' && !Character.isLetter(c)) {
+                sb.append(String.format("\\u%04X", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Прежний парсер: строки по split("\n"), предложения по split("(?<=[.!?])\\s+"),
+     * слова по split("\\s+")
+     */
+    private static class LegacyParser {
+        private static final int RED_LINE_INDENT = 4;
+
+        Component parse(String text) {
+            if (text.trim().isEmpty()) {
+                return new CompositeTool("empty", CompositeTool.CompositeType.DOCUMENT);
+            }
+
+            CompositeTool document = new CompositeTool("document", CompositeTool.CompositeType.DOCUMENT);
+            List<String> lines = new ArrayList<>();
+            int paragraphCount = 0;
+            boolean inParagraph = false;
+
+            for (String line : text.split("\n")) {
+                boolean blank = line.trim().isEmpty();
+                if (isRedLine(line)) {
+                    if (!lines.isEmpty()) {
+                        document.add(parseParagraph("paragraph_" + paragraphCount++, String.join("\n", lines)));
+                        lines.clear();
+                    }
+                    inParagraph = true;
+                    lines.add(line);
+                } else if (inParagraph) {
+                    lines.add(blank ? "" : line);
+                } else if (!blank) {
+                    inParagraph = true;
+                    lines.add(line);
+                }
+            }
+            if (!lines.isEmpty()) {
+                document.add(parseParagraph("paragraph_" + paragraphCount, String.join("\n", lines)));
+            }
+            return document;
+        }
+
+        private static boolean isRedLine(String line) {
+            if (line.startsWith(" ")) {
+                int spaces = 0;
+                while (spaces < line.length() && line.charAt(spaces) == ' ') {
+                    spaces++;
+                }
+                return spaces == RED_LINE_INDENT;
+            }
+            return line.startsWith("\t");
+        }
+
+        private static CompositeTool parseParagraph(String name, String text) {
+            CompositeTool paragraph = new CompositeTool(name, CompositeTool.CompositeType.PARAGRAPH);
+            String[] sentences = text.trim().split("(?<=[.!?])\\s+");
+            for (int i = 0; i < sentences.length; i++) {
+                if (sentences[i].trim().isEmpty()) {
+                    continue;
+                }
+                CompositeTool sentence = new CompositeTool("sentence_" + i, CompositeTool.CompositeType.SENTENCE);
+                String[] words = sentences[i].trim().split("\\s+");
+                for (int w = 0; w < words.length; w++) {
+                    if (words[w].isEmpty()) {
+                        continue;
+                    }
+                    CompositeTool word = new CompositeTool("word_" + w, CompositeTool.CompositeType.WORD);
+                    for (char c : words[w].toCharArray()) {
+                        word.add(Character.isLetterOrDigit(c) ? new CharacterLeaf(c) : new PunctuationLeaf(c));
+                    }
+                    sentence.add(word);
+                }
+                paragraph.add(sentence);
+            }
+            return paragraph;
+        }
+    }
+}
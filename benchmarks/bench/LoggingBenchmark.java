@@ -0,0 +1,101 @@
+package bench;
+
+import org.apache.logging.log4j.core.config.Configurator;
+import parse.TextParser;
+import processors.ProcessorPipeline;
+import processors.SubstringRemovalProcessor;
+import processors.WhitespaceProcessor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Сравнение пропускной способности парсинга и обработки при разных профилях логирования:
+ * resources/log4j2.xml (синхронная запись, обработчики на DEBUG),
+ * resources/log4j2-production.xml (асинхронная запись, обработчики на WARN)
+ * и полностью отключенное логирование. Файлы логов пишутся во временный каталог.
+ * <p>
+ * Аргументы: --size 16M --warmup N --iterations N
+ */
+public class LoggingBenchmark {
+    private static final String[][] PROFILES = {
+            {"log4j2.xml", "logging.development"},
+            {"log4j2-production.xml", "logging.production"},
+            {null, "logging.off"}
+    };
+
+    private static final String OFF_CONFIGURATION = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <Configuration status="WARN">
+                <Loggers>
+                    <Root level="OFF"/>
+                </Loggers>
+            </Configuration>
+            """;
+
+    public static void main(String[] args) throws Exception {
+        String size = "16M";
+        int warmup = 2;
+        int iterations = 5;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--size" -> size = args[++i];
+                case "--warmup" -> warmup = Integer.parseInt(args[++i]);
+                case "--iterations" -> iterations = Integer.parseInt(args[++i]);
+                default -> throw new IllegalArgumentException("Неизвестный аргумент: " + args[i]);
+            }
+        }
+
+        Path directory = Files.createTempDirectory("logging-bench");
+        String text = new CorpusGenerator(42, CorpusGenerator.Alphabet.MIXED)
+                .generate((int) BenchmarkRunner.parseSize(size));
+        Benchmark benchmark = new Benchmark(warmup, iterations);
+
+        System.out.printf("%n=== Профили логирования, %d символов, логи в %s ===%n", text.length(), directory);
+        System.out.println(BenchmarkResult.header());
+
+        for (String[] profile : PROFILES) {
+            Path profileDirectory = Files.createDirectories(directory.resolve(profile[1]));
+            Configurator.reconfigure(configuration(profile[0], profileDirectory).toUri());
+
+            TextParser parser = new TextParser();
+            System.out.println(benchmark.measure(profile[1], text.length(), () -> parser.parse(text),
+                    document -> {
+                        ProcessorPipeline.builder()
+                                .add(new SubstringRemovalProcessor('(', ')'))
+                                .add(new WhitespaceProcessor())
+                                .build()
+                                .run(document);
+                        return document;
+                    }));
+        }
+    }
+
+    /**
+     * Копия конфигурации из classpath, в которой файлы логов перенесены в directory
+     */
+    private static Path configuration(String resource, Path directory) throws IOException {
+        String xml;
+        if (resource == null) {
+            xml = OFF_CONFIGURATION;
+        } else {
+            try (InputStream in = LoggingBenchmark.class.getClassLoader().getResourceAsStream(resource)) {
+                if (in == null) {
+                    throw new IOException("Конфигурация не найдена в classpath: " + resource);
+                }
+                xml = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            }
+            String logDir = directory.toString().replace('\\', '/');
+            xml = xml.replace("fileName=\"logs/", "fileName=\"" + logDir + "/")
+                    .replace("${sys:log.dir:-logs}", logDir);
+        }
+
+        Path file = directory.resolve(resource == null ? "log4j2-off.xml" : resource);
+        Files.writeString(file, xml, StandardCharsets.UTF_8);
+        return file;
+    }
+}
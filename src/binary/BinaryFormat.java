@@ -0,0 +1,99 @@
+package binary;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Двоичный формат разобранного документа.
+ * <pre>
+ * заголовок: магическое число "TXDB" (4 байта), версия (1 байт),
+ *            кодировка символов (1 байт), резерв (2 байта)
+ * разделы:   тег (1 байт), длина содержимого в байтах (varint), содержимое
+ *   PARAGRAPHS - число абзацев, затем число предложений в каждом абзаце
+ *   SENTENCES  - число предложений, затем число слов в каждом предложении
+ *   WORDS      - число слов, затем число символов в каждом слове
+ *   CHARS      - число символов, затем символы всех слов подряд в UTF-8 или UTF-16BE
+ *   END        - конец файла, без длины
+ * </pre>
+ * Все числа - беззнаковые varint (по 7 бит в байте, старший бит - продолжение).
+ * Разделы с незнакомыми тегами пропускаются читателем, поэтому формат можно расширять
+ * без смены версии. Таблицы соответствуют CompactDocument, поэтому документ
+ * восстанавливается без повторного разбора текста
+ */
+public final class BinaryFormat {
+    static final int MAGIC = 0x54584442;
+    static final byte VERSION = 1;
+
+    static final byte TAG_END = 0;
+    static final byte TAG_PARAGRAPHS = 1;
+    static final byte TAG_SENTENCES = 2;
+    static final byte TAG_WORDS = 3;
+    static final byte TAG_CHARS = 4;
+
+    static final int HEADER_SIZE = 8;
+
+    public enum Encoding {
+        UTF_8(1, StandardCharsets.UTF_8),
+        UTF_16(2, StandardCharsets.UTF_16BE);
+
+        private final int code;
+        private final Charset charset;
+
+        Encoding(int code, Charset charset) {
+            this.code = code;
+            this.charset = charset;
+        }
+
+        int getCode() {
+            return code;
+        }
+
+        public Charset getCharset() {
+            return charset;
+        }
+
+        static Encoding of(int code) {
+            for (Encoding encoding : values()) {
+                if (encoding.code == code) {
+                    return encoding;
+                }
+            }
+            return null;
+        }
+    }
+
+    private BinaryFormat() {
+    }
+
+    static int varintSize(long value) {
+        int size = 1;
+        while ((value >>>= 7) != 0) {
+            size++;
+        }
+        return size;
+    }
+
+    static void putVarint(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    /**
+     * Читает varint; возвращает -1, если число не помещается в long или буфер кончился
+     */
+    static long getVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64 && buffer.hasRemaining(); shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        return -1;
+    }
+}
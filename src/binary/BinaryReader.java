@@ -0,0 +1,196 @@
+package binary;
+
+import entity.CompactDocument;
+import entity.CompositeTool;
+import exception.FileProcessingException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Чтение документа в двоичном формате (см. BinaryFormat) через отображение файла
+ * в память. Текст заново не разбирается: таблицы границ декодируются в массивы,
+ * символы в UTF-16 используются прямо из отображенного файла без копирования
+ */
+public class BinaryReader {
+    private static final Logger logger = LogManager.getLogger(BinaryReader.class);
+
+    private BinaryReader() {
+    }
+
+    /**
+     * Проверяет, начинается ли файл с магического числа двоичного формата
+     */
+    public static boolean isBinary(String filename) {
+        try (FileChannel channel = FileChannel.open(Path.of(filename), StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // читаем, пока не наберутся 4 байта или не кончится файл
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == BinaryFormat.MAGIC;
+        } catch (IOException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Отображает файл и возвращает компактное представление документа.
+     * Абзацы разворачиваются в деревья только при обращении к ним
+     */
+    public static CompactDocument map(String filename) throws FileProcessingException {
+        logger.debug("Отображение двоичного документа: {}", filename);
+
+        Path path = Path.of(filename);
+        if (!Files.isRegularFile(path) || !Files.isReadable(path)) {
+            logger.error("Файл не найден или недоступен для чтения: {}", filename);
+            throw new FileProcessingException("Файл не найден или недоступен для чтения: " + filename);
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CompactDocument document = decode(buffer, filename);
+            logger.info("Двоичный документ загружен: {}, {}", filename, document);
+            return document;
+        } catch (IOException e) {
+            logger.error("Ошибка при чтении файла: {}", filename, e);
+            throw new FileProcessingException("Ошибка при чтении файла: " + filename, e);
+        }
+    }
+
+    /**
+     * Загружает файл и восстанавливает полное дерево документа
+     */
+    public static CompositeTool read(String filename) throws FileProcessingException {
+        return map(filename).toComposite();
+    }
+
+    /**
+     * Декодирует документ из буфера; name используется в сообщениях об ошибках
+     */
+    public static CompactDocument decode(ByteBuffer buffer, String name) throws FileProcessingException {
+        ByteBuffer in = buffer.duplicate();
+        if (in.remaining() < BinaryFormat.HEADER_SIZE || in.getInt() != BinaryFormat.MAGIC) {
+            throw corrupted(name, "нет заголовка двоичного формата");
+        }
+        byte version = in.get();
+        if (version != BinaryFormat.VERSION) {
+            throw corrupted(name, "неподдерживаемая версия " + version);
+        }
+        BinaryFormat.Encoding encoding = BinaryFormat.Encoding.of(in.get());
+        if (encoding == null) {
+            throw corrupted(name, "неизвестная кодировка символов");
+        }
+        in.getShort();
+
+        int[] paragraphEnds = null;
+        int[] sentenceEnds = null;
+        int[] wordEnds = null;
+        CharBuffer chars = null;
+
+        while (true) {
+            if (!in.hasRemaining()) {
+                throw corrupted(name, "нет раздела END");
+            }
+            byte tag = in.get();
+            if (tag == BinaryFormat.TAG_END) {
+                break;
+            }
+
+            int length = length(in, name);
+            if (length > in.remaining()) {
+                throw corrupted(name, "раздел " + tag + " выходит за конец файла");
+            }
+            ByteBuffer section = in.slice(in.position(), length);
+            in.position(in.position() + length);
+
+            switch (tag) {
+                case BinaryFormat.TAG_PARAGRAPHS -> paragraphEnds = ends(section, name);
+                case BinaryFormat.TAG_SENTENCES -> sentenceEnds = ends(section, name);
+                case BinaryFormat.TAG_WORDS -> wordEnds = ends(section, name);
+                case BinaryFormat.TAG_CHARS -> chars = chars(section, encoding, name);
+                default -> logger.debug("Пропущен незнакомый раздел {} в {}", tag, name);
+            }
+        }
+
+        if (paragraphEnds == null || sentenceEnds == null || wordEnds == null || chars == null) {
+            throw corrupted(name, "отсутствует обязательный раздел");
+        }
+        if (last(paragraphEnds) != sentenceEnds.length || last(sentenceEnds) != wordEnds.length
+                || last(wordEnds) != chars.length()) {
+            throw corrupted(name, "таблицы границ не согласованы");
+        }
+        return new CompactDocument(chars, wordEnds, sentenceEnds, paragraphEnds);
+    }
+
+    /**
+     * Читает таблицу длин и переводит ее в таблицу концов, как в CompactDocument
+     */
+    private static int[] ends(ByteBuffer section, String name) throws FileProcessingException {
+        int count = length(section, name);
+        if (count > section.remaining()) {
+            throw corrupted(name, "таблица длиннее раздела");
+        }
+        int[] ends = new int[count];
+        long end = 0;
+        for (int i = 0; i < count; i++) {
+            end += length(section, name);
+            if (end > Integer.MAX_VALUE) {
+                throw corrupted(name, "слишком большая таблица");
+            }
+            ends[i] = (int) end;
+        }
+        return ends;
+    }
+
+    private static CharBuffer chars(ByteBuffer section, BinaryFormat.Encoding encoding,
+                                    String name) throws FileProcessingException {
+        int count = length(section, name);
+        if (encoding == BinaryFormat.Encoding.UTF_16) {
+            if (section.remaining() != 2L * count) {
+                throw corrupted(name, "размер символов не совпадает с заголовком");
+            }
+            return section.slice().asCharBuffer();
+        }
+
+        try {
+            CharBuffer chars = encoding.getCharset().newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(section);
+            if (chars.length() != count) {
+                throw corrupted(name, "число символов не совпадает с заголовком");
+            }
+            return chars;
+        } catch (CharacterCodingException e) {
+            logger.error("Символы не соответствуют кодировке {}: {}", encoding, name, e);
+            throw new FileProcessingException("Символы не соответствуют кодировке " + encoding + ": " + name, e);
+        }
+    }
+
+    private static int length(ByteBuffer buffer, String name) throws FileProcessingException {
+        long value = BinaryFormat.getVarint(buffer);
+        if (value < 0 || value > Integer.MAX_VALUE) {
+            throw corrupted(name, "неверное число");
+        }
+        return (int) value;
+    }
+
+    private static int last(int[] ends) {
+        return ends.length == 0 ? 0 : ends[ends.length - 1];
+    }
+
+    private static FileProcessingException corrupted(String name, String reason) {
+        logger.error("Поврежденный двоичный файл {}: {}", name, reason);
+        return new FileProcessingException("Поврежденный двоичный файл " + name + ": " + reason);
+    }
+}
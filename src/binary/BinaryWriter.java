@@ -0,0 +1,178 @@
+package binary;
+
+import entity.CompactDocument;
+import entity.Component;
+import exception.FileProcessingException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import write.Writer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Запись документа в двоичном формате (см. BinaryFormat). Таблицы границ пишутся
+ * одним буфером, символы кодируются и выводятся в канал частями
+ */
+public class BinaryWriter {
+    private static final Logger logger = LogManager.getLogger(BinaryWriter.class);
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private BinaryWriter() {
+    }
+
+    /**
+     * Сохраняет документ в файл; atomic и fsync - как у Writer.writeFile.
+     * Возвращает размер файла в байтах
+     */
+    public static long write(String filename, Component document, BinaryFormat.Encoding encoding,
+                             boolean atomic, boolean fsync) throws FileProcessingException {
+        CompactDocument compact = document instanceof CompactDocument c ? c : CompactDocument.from(document);
+        // Проверка символов до открытия файла, чтобы не затереть прежнее содержимое
+        long payloadSize = encodedSize(compact.getChars(), encoding);
+        long size = Writer.writeBytes(filename, channel -> write(channel, compact, encoding, payloadSize),
+                atomic, fsync);
+        logger.info("Документ сохранен в двоичном формате: {}, {}, {} байт", filename, compact, size);
+        return size;
+    }
+
+    /**
+     * Записывает документ в канал. Документ с одиночным суррогатом отклоняется
+     * через FileProcessingException до записи первого байта
+     */
+    public static void write(WritableByteChannel channel, CompactDocument document,
+                             BinaryFormat.Encoding encoding) throws IOException, FileProcessingException {
+        write(channel, document, encoding, encodedSize(document.getChars(), encoding));
+    }
+
+    private static void write(WritableByteChannel channel, CompactDocument document,
+                              BinaryFormat.Encoding encoding, long payloadSize) throws IOException {
+        int[] paragraphCounts = counts(document.getParagraphEnds());
+        int[] sentenceCounts = counts(document.getSentenceEnds());
+        int[] wordLengths = counts(document.getWordEnds());
+        CharBuffer chars = document.getChars();
+
+        int tablesSize = sectionSize(paragraphCounts) + sectionSize(sentenceCounts) + sectionSize(wordLengths);
+        ByteBuffer head = ByteBuffer.allocate(BinaryFormat.HEADER_SIZE + tablesSize + 1 + 2 * 10);
+        head.putInt(BinaryFormat.MAGIC)
+                .put(BinaryFormat.VERSION)
+                .put((byte) encoding.getCode())
+                .putShort((short) 0);
+        putTable(head, BinaryFormat.TAG_PARAGRAPHS, paragraphCounts);
+        putTable(head, BinaryFormat.TAG_SENTENCES, sentenceCounts);
+        putTable(head, BinaryFormat.TAG_WORDS, wordLengths);
+
+        head.put(BinaryFormat.TAG_CHARS);
+        BinaryFormat.putVarint(head, BinaryFormat.varintSize(chars.length()) + payloadSize);
+        BinaryFormat.putVarint(head, chars.length());
+        writeFully(channel, head.flip());
+
+        writeChars(channel, chars, encoding);
+        writeFully(channel, ByteBuffer.wrap(new byte[]{BinaryFormat.TAG_END}));
+    }
+
+    /**
+     * Переводит таблицу концов в таблицу длин
+     */
+    private static int[] counts(int[] ends) {
+        int[] counts = new int[ends.length];
+        int previous = 0;
+        for (int i = 0; i < ends.length; i++) {
+            counts[i] = ends[i] - previous;
+            previous = ends[i];
+        }
+        return counts;
+    }
+
+    private static int tableSize(int[] values) {
+        int size = BinaryFormat.varintSize(values.length);
+        for (int value : values) {
+            size += BinaryFormat.varintSize(value);
+        }
+        return size;
+    }
+
+    private static int sectionSize(int[] values) {
+        int size = tableSize(values);
+        return 1 + BinaryFormat.varintSize(size) + size;
+    }
+
+    private static void putTable(ByteBuffer buffer, byte tag, int[] values) {
+        buffer.put(tag);
+        BinaryFormat.putVarint(buffer, tableSize(values));
+        BinaryFormat.putVarint(buffer, values.length);
+        for (int value : values) {
+            BinaryFormat.putVarint(buffer, value);
+        }
+    }
+
+    /**
+     * Размер символов в байтах после кодирования; нужен заранее для длины раздела.
+     * Одиночный суррогат нельзя закодировать ни в UTF-8, ни в UTF-16, поэтому
+     * такой документ отклоняется
+     */
+    private static long encodedSize(CharBuffer chars, BinaryFormat.Encoding encoding)
+            throws FileProcessingException {
+        boolean utf16 = encoding == BinaryFormat.Encoding.UTF_16;
+        long size = 0;
+        for (int i = 0; i < chars.length(); i++) {
+            char c = chars.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < chars.length()
+                    && Character.isLowSurrogate(chars.charAt(i + 1))) {
+                size += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                String message = String.format("Одиночный суррогат U+%04X в позиции %d: "
+                        + "документ нельзя сохранить в двоичном формате", (int) c, i);
+                logger.error(message);
+                throw new FileProcessingException(message);
+            } else if (utf16) {
+                size += 2;
+            } else if (c < 0x80) {
+                size++;
+            } else if (c < 0x800) {
+                size += 2;
+            } else {
+                size += 3;
+            }
+        }
+        return size;
+    }
+
+    private static void writeChars(WritableByteChannel channel, CharBuffer chars,
+                                   BinaryFormat.Encoding encoding) throws IOException {
+        CharsetEncoder encoder = encoding.getCharset().newEncoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_SIZE);
+
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isError()) {
+                result.throwException();
+            }
+            writeFully(channel, buffer.flip());
+            buffer.clear();
+            if (result.isUnderflow()) {
+                break;
+            }
+        }
+        while (encoder.flush(buffer).isOverflow()) {
+            writeFully(channel, buffer.flip());
+            buffer.clear();
+        }
+        writeFully(channel, buffer.flip());
+    }
+
+    private static void writeFully(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
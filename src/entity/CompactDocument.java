@@ -0,0 +1,302 @@
+package entity;
+
+import processors.TextProcessor;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+/**
+ * Компактное представление документа: символы всех слов подряд в одном буфере
+ * и таблицы границ слов, предложений и абзацев вместо дерева объектов.
+ * Текст и количество элементов совпадают с эквивалентным деревом CompositeTool
+ */
+public class CompactDocument implements Component {
+    private CharBuffer chars;
+    private int[] wordEnds;
+    private int[] sentenceEnds;
+    private int[] paragraphEnds;
+
+    /**
+     * @param chars         символы слов без разделителей
+     * @param wordEnds      для каждого слова - смещение его конца в chars
+     * @param sentenceEnds  для каждого предложения - номер слова, следующего за последним
+     * @param paragraphEnds для каждого абзаца - номер предложения, следующего за последним
+     */
+    public CompactDocument(CharBuffer chars, int[] wordEnds, int[] sentenceEnds, int[] paragraphEnds) {
+        this.chars = chars;
+        this.wordEnds = wordEnds;
+        this.sentenceEnds = sentenceEnds;
+        this.paragraphEnds = paragraphEnds;
+    }
+
+    /**
+     * Кодирует дерево документа в компактное представление
+     */
+    public static CompactDocument from(Component document) {
+        Builder builder = new Builder();
+        if (document instanceof CompositeTool composite) {
+            for (Component paragraph : composite.children()) {
+                appendParagraph(builder, paragraph);
+            }
+        }
+        return builder.build();
+    }
+
+    private static void appendParagraph(Builder builder, Component paragraph) {
+        if (paragraph instanceof CompositeTool composite) {
+            for (Component sentence : composite.children()) {
+                if (sentence instanceof CompositeTool sentenceComposite) {
+                    for (Component word : sentenceComposite.children()) {
+                        builder.append(word.getText());
+                        builder.endWord();
+                    }
+                }
+                builder.endSentence();
+            }
+        }
+        builder.endParagraph();
+    }
+
+    public int paragraphCount() {
+        return paragraphEnds.length;
+    }
+
+    public int sentenceCount() {
+        return sentenceEnds.length;
+    }
+
+    public int wordCount() {
+        return wordEnds.length;
+    }
+
+    public CharBuffer getChars() {
+        return chars.duplicate();
+    }
+
+    public int[] getWordEnds() {
+        return wordEnds;
+    }
+
+    public int[] getSentenceEnds() {
+        return sentenceEnds;
+    }
+
+    public int[] getParagraphEnds() {
+        return paragraphEnds;
+    }
+
+    /**
+     * Длина текста с разделителями, как у getText, без построения строки
+     */
+    public int textLength() {
+        int length = chars.length();
+        int paragraphs = paragraphEnds.length;
+        if (paragraphs > 1) {
+            length += 2 * (paragraphs - 1);
+        }
+
+        int sentence = 0;
+        for (int paragraphEnd : paragraphEnds) {
+            if (paragraphEnd - sentence > 1) {
+                length += paragraphEnd - sentence - 1;
+            }
+            sentence = paragraphEnd;
+        }
+
+        int word = 0;
+        for (int sentenceEnd : sentenceEnds) {
+            if (sentenceEnd - word > 1) {
+                length += sentenceEnd - word - 1;
+            }
+            word = sentenceEnd;
+        }
+        return length;
+    }
+
+    @Override
+    public String getText() {
+        StringBuilder sb = new StringBuilder(textLength());
+        try {
+            getText(sb);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void getText(Appendable out) throws IOException {
+        for (int p = 0; p < paragraphEnds.length; p++) {
+            if (p > 0) {
+                out.append("\n\n");
+            }
+            appendParagraphText(out, p);
+        }
+    }
+
+    private void appendParagraphText(Appendable out, int paragraph) throws IOException {
+        int firstSentence = paragraph == 0 ? 0 : paragraphEnds[paragraph - 1];
+        for (int s = firstSentence; s < paragraphEnds[paragraph]; s++) {
+            if (s > firstSentence) {
+                out.append('\n');
+            }
+
+            int firstWord = s == 0 ? 0 : sentenceEnds[s - 1];
+            for (int w = firstWord; w < sentenceEnds[s]; w++) {
+                if (w > firstWord) {
+                    out.append(' ');
+                }
+                int start = w == 0 ? 0 : wordEnds[w - 1];
+                out.append(chars, start, wordEnds[w]);
+            }
+        }
+    }
+
+    /**
+     * Строит дерево CompositeTool для одного абзаца
+     */
+    public CompositeTool paragraph(int paragraph) {
+        CompositeTool result = new CompositeTool("paragraph_" + paragraph, CompositeTool.CompositeType.PARAGRAPH);
+
+        int firstSentence = paragraph == 0 ? 0 : paragraphEnds[paragraph - 1];
+        for (int s = firstSentence; s < paragraphEnds[paragraph]; s++) {
+            CompositeTool sentence = new CompositeTool("sentence_" + (s - firstSentence),
+                    CompositeTool.CompositeType.SENTENCE);
+
+            int firstWord = s == 0 ? 0 : sentenceEnds[s - 1];
+            for (int w = firstWord; w < sentenceEnds[s]; w++) {
+                CompositeTool word = new CompositeTool("word_" + (w - firstWord), CompositeTool.CompositeType.WORD);
+                int start = w == 0 ? 0 : wordEnds[w - 1];
+                for (int i = start; i < wordEnds[w]; i++) {
+                    word.add(LeafFactory.leaf(chars.charAt(i)));
+                }
+                sentence.add(word);
+            }
+            result.add(sentence);
+        }
+        return result;
+    }
+
+    /**
+     * Строит полное дерево CompositeTool
+     */
+    public CompositeTool toComposite() {
+        CompositeTool document = new CompositeTool("document", CompositeTool.CompositeType.DOCUMENT);
+        for (int p = 0; p < paragraphEnds.length; p++) {
+            document.add(paragraph(p));
+        }
+        return document;
+    }
+
+    /**
+     * Обработчики получают абзацы по одному в виде временных деревьев CompositeTool;
+     * результат обработки кодируется обратно, так что в памяти одновременно
+     * находится не более одного развернутого абзаца
+     */
+    @Override
+    public void process(TextProcessor processor) {
+        processor.process(new CompositeTool("document", CompositeTool.CompositeType.DOCUMENT));
+
+        Builder builder = new Builder(chars.length());
+        for (int p = 0; p < paragraphEnds.length; p++) {
+            CompositeTool paragraph = paragraph(p);
+            paragraph.process(processor);
+            appendParagraph(builder, paragraph);
+        }
+
+        CompactDocument processed = builder.build();
+        this.chars = processed.chars;
+        this.wordEnds = processed.wordEnds;
+        this.sentenceEnds = processed.sentenceEnds;
+        this.paragraphEnds = processed.paragraphEnds;
+    }
+
+    @Override
+    public int countElements() {
+        return chars.length();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CompactDocument{paragraphs=%d, sentences=%d, words=%d, chars=%d}",
+                paragraphEnds.length, sentenceEnds.length, wordEnds.length, chars.length());
+    }
+
+    /**
+     * Последовательно наполняет таблицы границ
+     */
+    public static class Builder {
+        private char[] chars;
+        private int charCount;
+        private int[] wordEnds = new int[64];
+        private int wordCount;
+        private int[] sentenceEnds = new int[16];
+        private int sentenceCount;
+        private int[] paragraphEnds = new int[4];
+        private int paragraphCount;
+
+        public Builder() {
+            this(256);
+        }
+
+        public Builder(int expectedChars) {
+            this.chars = new char[Math.max(16, expectedChars)];
+        }
+
+        public Builder append(char c) {
+            if (charCount == chars.length) {
+                chars = Arrays.copyOf(chars, chars.length * 2);
+            }
+            chars[charCount++] = c;
+            return this;
+        }
+
+        public Builder append(CharSequence text, int start, int end) {
+            int required = charCount + end - start;
+            if (required > chars.length) {
+                chars = Arrays.copyOf(chars, Math.max(required, chars.length * 2));
+            }
+            for (int i = start; i < end; i++) {
+                chars[charCount++] = text.charAt(i);
+            }
+            return this;
+        }
+
+        public Builder append(CharSequence text) {
+            return append(text, 0, text.length());
+        }
+
+        public Builder endWord() {
+            if (wordCount == wordEnds.length) {
+                wordEnds = Arrays.copyOf(wordEnds, wordEnds.length * 2);
+            }
+            wordEnds[wordCount++] = charCount;
+            return this;
+        }
+
+        public Builder endSentence() {
+            if (sentenceCount == sentenceEnds.length) {
+                sentenceEnds = Arrays.copyOf(sentenceEnds, sentenceEnds.length * 2);
+            }
+            sentenceEnds[sentenceCount++] = wordCount;
+            return this;
+        }
+
+        public Builder endParagraph() {
+            if (paragraphCount == paragraphEnds.length) {
+                paragraphEnds = Arrays.copyOf(paragraphEnds, paragraphEnds.length * 2);
+            }
+            paragraphEnds[paragraphCount++] = sentenceCount;
+            return this;
+        }
+
+        public CompactDocument build() {
+            return new CompactDocument(
+                    CharBuffer.wrap(Arrays.copyOf(chars, charCount)),
+                    Arrays.copyOf(wordEnds, wordCount),
+                    Arrays.copyOf(sentenceEnds, sentenceCount),
+                    Arrays.copyOf(paragraphEnds, paragraphCount));
+        }
+    }
+}
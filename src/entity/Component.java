@@ -2,11 +2,21 @@ package entity;
 
 import processors.TextProcessor;
 
+import java.io.IOException;
+
 /**
  * Базовый интерфейс для всех компонентов текста
  */
 public interface Component {
     String getText();
+
+    /**
+     * Записывает текст компонента в out, не собирая промежуточных строк
+     */
+    default void getText(Appendable out) throws IOException {
+        out.append(getText());
+    }
+
     void process(TextProcessor processor);
     int countElements();
 }
\ No newline at end of file
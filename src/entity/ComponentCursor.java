@@ -0,0 +1,122 @@
+package entity;
+
+import java.util.Arrays;
+
+/**
+ * Обход дерева компонентов в прямом порядке без рекурсии: путь от корня
+ * до текущего узла хранится в явном стеке, дети читаются по индексу без копирования
+ * списка. Один курсор можно использовать для разных деревьев через reset.
+ * Дети узла читаются при переходе к ним, поэтому текущий узел можно изменять
+ * перед вызовом next; состав уже пройденных предков менять нельзя
+ */
+public final class ComponentCursor {
+    private static final int INITIAL_DEPTH = 8;
+
+    private CompositeTool[] parents = new CompositeTool[INITIAL_DEPTH];
+    private int[] indexes = new int[INITIAL_DEPTH];
+    private int depth;
+
+    private Component root;
+    private Component current;
+    private boolean started;
+    private boolean descend;
+
+    public ComponentCursor() {
+    }
+
+    public ComponentCursor(Component root) {
+        reset(root);
+    }
+
+    /**
+     * Начинает обход нового дерева; первый вызов next переходит к root
+     */
+    public ComponentCursor reset(Component root) {
+        Arrays.fill(parents, 0, depth, null);
+        depth = 0;
+        this.root = root;
+        current = null;
+        started = false;
+        descend = false;
+        return this;
+    }
+
+    /**
+     * Переходит к следующему узлу: к первому ребенку текущего узла,
+     * иначе к следующему брату его самого или ближайшего предка.
+     * Возвращает false, когда дерево пройдено
+     */
+    public boolean next() {
+        if (!started) {
+            started = true;
+            current = root;
+            descend = true;
+            return current != null;
+        }
+        if (current == null) {
+            return false;
+        }
+
+        if (descend && current instanceof CompositeTool composite && composite.childCount() > 0) {
+            push(composite);
+            current = composite.getChild(0);
+            return true;
+        }
+
+        while (depth > 0) {
+            CompositeTool parent = parents[depth - 1];
+            int index = ++indexes[depth - 1];
+            if (index < parent.childCount()) {
+                current = parent.getChild(index);
+                descend = true;
+                return true;
+            }
+            parents[--depth] = null;
+        }
+        current = null;
+        return false;
+    }
+
+    /**
+     * Не заходить в детей текущего узла: следующий next перейдет к его брату.
+     * У узла с отложенным построением дети при этом не строятся
+     */
+    public void skipChildren() {
+        descend = false;
+    }
+
+    public Component current() {
+        return current;
+    }
+
+    /**
+     * Глубина текущего узла; у корня 0
+     */
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * Индекс текущего узла среди детей родителя; у корня -1
+     */
+    public int index() {
+        return depth == 0 ? -1 : indexes[depth - 1];
+    }
+
+    /**
+     * Родитель текущего узла в обходе; у корня null
+     */
+    public CompositeTool parent() {
+        return depth == 0 ? null : parents[depth - 1];
+    }
+
+    private void push(CompositeTool composite) {
+        if (depth == parents.length) {
+            parents = Arrays.copyOf(parents, depth * 2);
+            indexes = Arrays.copyOf(indexes, depth * 2);
+        }
+        parents[depth] = composite;
+        indexes[depth] = 0;
+        depth++;
+    }
+}
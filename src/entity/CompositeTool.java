@@ -1,101 +1,562 @@
 package entity;
 
 import processors.TextProcessor;
+
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
 
 /**
- * Составной компонент - может содержать другие компоненты
+ * Составной компонент - может содержать другие компоненты.
+ * После freeze поддерево неизменяемо и может использоваться из нескольких потоков
  */
 public class CompositeTool implements Component {
-    private final List<Component> components = new ArrayList<>();
-    private final String name;
+    private List<Component> components = new ArrayList<>();
+    private List<Component> childrenView;
+    // null - имя выводится из типа и номера узла среди детей родителя (см. getName)
+    private String name;
     private final CompositeType type;
+    private CompositeTool parent;
+    // Номер узла среди детей parent; поддерживается при изменении детей, чтобы getName не искал узел в списке
+    private int indexInParent = -1;
+
+    // Кэш текста и его длины; сбрасывается у узла и всех его предков при изменении детей
+    private String cachedText;
+    private int cachedLength = -1;
+
+    // Число изменений в поддереве узла; растет вместе со сбросом кэша
+    private int modificationCount;
+
+    // Число детей, не являющихся листьями; если их нет, длина текста считается без обхода
+    private int nonLeafChildren;
+
+    // Дети еще не построены (см. materialize); текст узла дает deferredText
+    private boolean deferred;
+
+    // Узел заморожен (см. freeze): состав детей и родитель больше не меняются
+    private boolean frozen;
+
+    // Число листьев замороженного поддерева; у изменяемого узла не хранится
+    private int cachedCount = -1;
+
+    // Сброс кэша у потомков не поднимается выше этого узла (см. holdInvalidation)
+    private boolean invalidationHeld;
 
     public enum CompositeType {
         DOCUMENT, PARAGRAPH, SENTENCE, WORD, LEXEME
     }
 
     public CompositeTool(String name, CompositeType type) {
+        this(name, type, false);
+    }
+
+    /**
+     * @param deferred дети строятся при первом обращении к ним через materialize
+     */
+    protected CompositeTool(String name, CompositeType type, boolean deferred) {
         this.name = name;
         this.type = type;
+        this.deferred = deferred;
+    }
+
+    /**
+     * Строит детей узла, созданного с отложенным построением. Вызывается один раз,
+     * при первом обращении к детям; построение не считается изменением узла
+     */
+    protected List<Component> materialize() {
+        return List.of();
+    }
+
+    /**
+     * Текст узла с отложенным построением, совпадающий с getText после materialize
+     */
+    protected String deferredText() {
+        return "";
+    }
+
+    /**
+     * Длина deferredText; наследники могут считать ее без сборки строки
+     */
+    protected int deferredTextLength() {
+        return deferredText().length();
+    }
+
+    /**
+     * Копия узла с отложенным построением, у которой дети тоже еще не построены;
+     * null - построить детей и скопировать их обычным образом
+     */
+    protected CompositeTool deferredCopy() {
+        return null;
+    }
+
+    /**
+     * Построены ли дети узла. Обработчики, которым достаточно текста,
+     * могут проверять это, чтобы не строить поддерево без необходимости
+     */
+    public boolean isMaterialized() {
+        return !deferred;
+    }
+
+    private void expand() {
+        if (deferred) {
+            deferred = false;
+            for (Component component : materialize()) {
+                components.add(component);
+                if (component instanceof CompositeTool child) {
+                    child.parent = this;
+                    child.indexInParent = components.size() - 1;
+                }
+                if (!(component instanceof TextLeaf)) {
+                    nonLeafChildren++;
+                }
+            }
+        }
     }
 
     public void add(Component component) {
+        checkMutable();
+        expand();
         components.add(component);
+        // Замороженный узел может входить в несколько деревьев; его родитель и номер не меняются
+        // ни здесь, ни при удалении, иначе их могли бы читать другие потоки во время записи
+        if (component instanceof CompositeTool child && !child.frozen) {
+            child.parent = this;
+            child.indexInParent = components.size() - 1;
+        }
+        if (!(component instanceof TextLeaf)) {
+            nonLeafChildren++;
+        }
+        invalidate();
     }
 
     public void remove(Component component) {
-        components.remove(component);
+        checkMutable();
+        expand();
+        int index = components.indexOf(component);
+        if (index >= 0) {
+            components.remove(index);
+            if (component instanceof CompositeTool child && child.parent == this && !child.frozen) {
+                child.parent = null;
+                child.indexInParent = -1;
+            }
+            if (!(component instanceof TextLeaf)) {
+                nonLeafChildren--;
+            }
+            renumber(index);
+            invalidate();
+        }
+    }
+
+    /**
+     * Удаляет дочерние компоненты с индексами [fromIndex, toIndex)
+     */
+    public void removeRange(int fromIndex, int toIndex) {
+        checkMutable();
+        expand();
+        List<Component> removed = components.subList(fromIndex, toIndex);
+        for (Component component : removed) {
+            if (component instanceof CompositeTool child && child.parent == this && !child.frozen) {
+                child.parent = null;
+                child.indexInParent = -1;
+            }
+            if (!(component instanceof TextLeaf)) {
+                nonLeafChildren--;
+            }
+        }
+        removed.clear();
+        renumber(fromIndex);
+        invalidate();
+    }
+
+    /**
+     * Обновляет номера детей, начиная с fromIndex, после удаления
+     */
+    private void renumber(int fromIndex) {
+        for (int i = fromIndex; nonLeafChildren > 0 && i < components.size(); i++) {
+            if (components.get(i) instanceof CompositeTool child && child.parent == this && !child.frozen) {
+                child.indexInParent = i;
+            }
+        }
     }
 
     public Component getChild(int index) {
+        expand();
         return components.get(index);
     }
 
+    public int childCount() {
+        expand();
+        return components.size();
+    }
+
+    /**
+     * Копия списка детей; для чтения без копирования - children или ComponentCursor
+     */
     public List<Component> getComponents() {
+        expand();
         return new ArrayList<>(components);
     }
 
+    /**
+     * Дети узла только для чтения, без копирования: список отражает последующие изменения узла
+     */
+    public List<Component> children() {
+        expand();
+        if (childrenView == null) {
+            childrenView = Collections.unmodifiableList(components);
+        }
+        return childrenView;
+    }
+
+    /**
+     * Удаляет всех детей; у узла с отложенным построением дети не строятся
+     */
     public void clear() {
+        checkMutable();
+        deferred = false;
+        for (Component component : components) {
+            if (component instanceof CompositeTool child && child.parent == this && !child.frozen) {
+                child.parent = null;
+                child.indexInParent = -1;
+            }
+        }
         components.clear();
+        nonLeafChildren = 0;
+        invalidate();
     }
 
     public CompositeType getType() {
         return type;
     }
 
+    /**
+     * Имя узла. Если оно не задано, выводится из типа и номера среди детей родителя
+     * ("sentence_3"), как у узлов после разбора
+     */
     public String getName() {
-        return name;
+        if (name != null) {
+            return name;
+        }
+        String typeName = type.name().toLowerCase(Locale.ROOT);
+        return parent == null ? typeName : typeName + "_" + indexInParent;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    /**
+     * Переводит поддерево в неизменяемую форму на месте: дети хранятся в списках
+     * точного размера, отложенные дети строятся, имена, совпадающие с выводимыми
+     * из типа и номера, не хранятся. После этого add, remove, removeRange и clear
+     * бросают UnsupportedOperationException, а поддерево можно читать из нескольких
+     * потоков без блокировок: кэши текста, длины и числа листьев заполняются
+     * одинаковыми значениями независимо от потока. Изменяемое дерево дает copy.
+     * Возвращает этот узел
+     */
+    public CompositeTool freeze() {
+        ComponentCursor cursor = new ComponentCursor(this);
+        while (cursor.next()) {
+            if (cursor.current() instanceof CompositeTool composite) {
+                if (composite.frozen) {
+                    cursor.skipChildren();
+                } else {
+                    composite.freezeNode(cursor.depth() == 0 ? -1 : cursor.index());
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * @param index номер узла среди детей замораживаемого родителя; -1 - корень заморозки,
+     *              родитель которого может измениться, поэтому имя сохраняется
+     */
+    private void freezeNode(int index) {
+        expand();
+        components = List.of(components.toArray(new Component[0]));
+        childrenView = components;
+        if (name != null && (index >= 0 || parent == null)) {
+            String typeName = type.name().toLowerCase(Locale.ROOT);
+            if (name.equals(index >= 0 ? typeName + "_" + index : typeName)) {
+                name = null;
+            }
+        }
+        frozen = true;
+    }
+
+    private void checkMutable() {
+        if (frozen) {
+            throw new UnsupportedOperationException("Замороженный узел нельзя изменять: " + getName());
+        }
+    }
+
+    public CompositeTool getParent() {
+        return parent;
+    }
+
+    /**
+     * Глубокая копия поддерева без родителя. Листья общие (они неизменяемы),
+     * кэш текста переносится в копию. Копия замороженного дерева изменяема
+     */
+    public CompositeTool copy() {
+        if (deferred) {
+            CompositeTool copy = deferredCopy();
+            if (copy != null) {
+                copy.name = name;
+                copy.cachedText = cachedText;
+                copy.cachedLength = cachedLength;
+                return copy;
+            }
+            expand();
+        }
+        CompositeTool copy = new CompositeTool(name, type);
+        copy.components.addAll(components);
+        for (int i = 0; nonLeafChildren > 0 && i < components.size(); i++) {
+            if (components.get(i) instanceof CompositeTool child) {
+                CompositeTool childCopy = child.copy();
+                childCopy.parent = copy;
+                childCopy.indexInParent = i;
+                copy.components.set(i, childCopy);
+            }
+        }
+        copy.nonLeafChildren = nonLeafChildren;
+        copy.cachedText = cachedText;
+        copy.cachedLength = cachedLength;
+        return copy;
+    }
+
+    /**
+     * Сбрасывает кэш текста у этого узла и у всех его предков
+     */
+    protected void invalidate() {
+        for (CompositeTool node = this; node != null; node = node.parent) {
+            if (node.invalidationHeld && node != this) {
+                break;
+            }
+            node.cachedText = null;
+            node.cachedLength = -1;
+            node.modificationCount++;
+        }
+    }
+
+    /**
+     * Пока удержание не снято releaseInvalidation, изменения потомков сбрасывают кэш
+     * только до этого узла: его кэш, счетчик изменений и предки не трогаются.
+     * Так потомков можно менять из нескольких потоков, не записывая общие поля узла
+     */
+    public void holdInvalidation() {
+        invalidationHeld = true;
+    }
+
+    /**
+     * Снимает удержание holdInvalidation и один раз сбрасывает кэш узла и предков
+     */
+    public void releaseInvalidation() {
+        invalidationHeld = false;
+        invalidate();
+    }
+
+    /**
+     * Счетчик изменений узла и его потомков: если он не изменился,
+     * поддерево осталось прежним
+     */
+    public int getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * Длина текста, возвращаемого getText; вычисляется без построения строки и кэшируется
+     */
+    public int textLength() {
+        if (cachedLength < 0 && deferred) {
+            cachedLength = cachedText != null ? cachedText.length() : deferredTextLength();
+        } else if (cachedLength < 0 && nonLeafChildren == 0) {
+            int size = components.size();
+            cachedLength = size > 1 ? size + separator().length() * (size - 1) : size;
+        } else if (cachedLength < 0) {
+            int length = 0;
+            ComponentCursor cursor = new ComponentCursor(this);
+            cursor.next();
+            while (cursor.next()) {
+                if (cursor.index() == 0) {
+                    CompositeTool parent = cursor.parent();
+                    length += parent.separator().length() * (parent.components.size() - 1);
+                }
+
+                Component component = cursor.current();
+                if (component instanceof CompositeTool composite) {
+                    // Узлы с известной или простой длиной не обходятся
+                    if (composite.cachedLength >= 0 || composite.deferred || composite.nonLeafChildren == 0) {
+                        length += composite.textLength();
+                        cursor.skipChildren();
+                    }
+                } else if (component instanceof TextLeaf) {
+                    length++;
+                } else {
+                    length += component.getText().length();
+                }
+            }
+            cachedLength = length;
+        }
+        return cachedLength;
     }
 
     @Override
     public String getText() {
-        StringBuilder sb = new StringBuilder();
-        for (int i = 0; i < components.size(); i++) {
-            Component component = components.get(i);
-            sb.append(component.getText());
-
-            if (i < components.size() - 1) {
-                switch (type) {
-                    case DOCUMENT:
-                        sb.append("\n\n");
-                        break;
-                    case PARAGRAPH:
-                        sb.append("\n");
-                        break;
-                    case SENTENCE:
-                        sb.append(" ");
-                        break;
-                    case WORD, LEXEME:
-                        break;
+        if (cachedText == null && deferred) {
+            cachedText = deferredText();
+        } else if (cachedText == null) {
+            StringBuilder sb = new StringBuilder(textLength());
+            appendText(sb);
+            cachedText = sb.toString();
+        }
+        return cachedText;
+    }
+
+    @Override
+    public void getText(Appendable out) throws IOException {
+        if (cachedText != null || deferred) {
+            out.append(getText());
+            return;
+        }
+
+        ComponentCursor cursor = new ComponentCursor(this);
+        cursor.next();
+        while (cursor.next()) {
+            if (cursor.index() > 0) {
+                out.append(cursor.parent().separator());
+            }
+
+            Component component = cursor.current();
+            if (component instanceof CompositeTool composite) {
+                if (composite.cachedText != null || composite.deferred) {
+                    out.append(composite.getText());
+                    cursor.skipChildren();
                 }
+            } else if (component instanceof TextLeaf leaf) {
+                out.append(leaf.getValue());
+            } else {
+                component.getText(out);
+            }
+        }
+    }
+
+    /**
+     * Сборка текста обходом без рекурсии; дети с готовым текстом не обходятся
+     */
+    private void appendText(StringBuilder sb) {
+        if (nonLeafChildren == 0) {
+            appendLeaves(sb);
+            return;
+        }
+
+        ComponentCursor cursor = new ComponentCursor(this);
+        cursor.next();
+        while (cursor.next()) {
+            if (cursor.index() > 0) {
+                sb.append(cursor.parent().separator());
+            }
+
+            Component component = cursor.current();
+            if (component instanceof CompositeTool composite) {
+                if (composite.cachedText != null || composite.deferred) {
+                    sb.append(composite.getText());
+                    cursor.skipChildren();
+                } else if (composite.nonLeafChildren == 0) {
+                    composite.appendLeaves(sb);
+                    cursor.skipChildren();
+                }
+            } else if (component instanceof TextLeaf leaf) {
+                sb.append(leaf.getValue());
+            } else {
+                sb.append(component.getText());
+            }
+        }
+    }
+
+    /**
+     * Текст узла, все дети которого - листья
+     */
+    private void appendLeaves(StringBuilder sb) {
+        String separator = separator();
+        for (int i = 0; i < components.size(); i++) {
+            if (i > 0) {
+                sb.append(separator);
             }
+            sb.append(((TextLeaf) components.get(i)).getValue());
+        }
+    }
+
+    /**
+     * Разделитель между дочерними компонентами при сборке текста
+     */
+    private String separator() {
+        switch (type) {
+            case DOCUMENT:
+                return "\n\n";
+            case PARAGRAPH:
+                return "\n";
+            case SENTENCE:
+                return " ";
+            case WORD, LEXEME:
+            default:
+                return "";
         }
-        return sb.toString();
     }
 
+    /**
+     * Передает обработчику узел и всех его потомков в прямом порядке обхода без рекурсии.
+     * Дети узла читаются после его обработки, поэтому обработчик может их изменять
+     */
     @Override
     public void process(TextProcessor processor) {
-        processor.process(this);
-
-        for (Component component : components) {
-            component.process(processor);
+        ComponentCursor cursor = new ComponentCursor(this);
+        while (cursor.next()) {
+            Component component = cursor.current();
+            if (component instanceof CompositeTool composite) {
+                processor.process(composite);
+            } else {
+                component.process(processor);
+            }
         }
     }
 
+    /**
+     * Число листьев поддерева; узлы с отложенным построением считают их сами,
+     * не строя детей
+     */
     @Override
     public int countElements() {
+        if (cachedCount >= 0) {
+            return cachedCount;
+        }
+
         int count = 0;
-        for (Component component : components) {
-            count += component.countElements();
+        ComponentCursor cursor = new ComponentCursor(this);
+        cursor.next();
+        while (cursor.next()) {
+            Component component = cursor.current();
+            if (component instanceof CompositeTool composite) {
+                if (composite.deferred || composite.cachedCount >= 0) {
+                    count += composite.countElements();
+                    cursor.skipChildren();
+                }
+            } else {
+                count += component.countElements();
+            }
+        }
+        if (frozen) {
+            cachedCount = count;
         }
         return count;
     }
 
     @Override
     public String toString() {
-        return String.format("CompositeTool{name='%s', type=%s, components=%d}",
-                name, type, components.size());
+        return String.format("CompositeTool{name='%s', type=%s, components=%s}",
+                getName(), type, deferred ? "deferred" : components.size());
     }
-}
\ No newline at end of file
+}
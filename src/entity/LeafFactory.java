@@ -0,0 +1,46 @@
+package entity;
+
+/**
+ * Фабрика листьев (Flyweight): листья неизменяемы, поэтому для каждого
+ * значения символа хранится один общий экземпляр.
+ * Один и тот же лист может встречаться в дереве многократно,
+ * поэтому CompositeTool.remove(leaf) удаляет первое вхождение символа
+ */
+public final class LeafFactory {
+    private static final int CACHE_SIZE = Character.MAX_VALUE + 1;
+
+    // Заполняются лениво; гонка при заполнении безопасна, так как поле value у TextLeaf final
+    private static final CharacterLeaf[] CHARACTERS = new CharacterLeaf[CACHE_SIZE];
+    private static final PunctuationLeaf[] PUNCTUATION = new PunctuationLeaf[CACHE_SIZE];
+
+    private LeafFactory() {
+    }
+
+    /**
+     * Возвращает лист нужного типа: буквы и цифры - CharacterLeaf, остальное - PunctuationLeaf
+     */
+    public static TextLeaf leaf(char value) {
+        if (Character.isLetterOrDigit(value)) {
+            return character(value);
+        }
+        return punctuation(value);
+    }
+
+    public static CharacterLeaf character(char value) {
+        CharacterLeaf leaf = CHARACTERS[value];
+        if (leaf == null) {
+            leaf = new CharacterLeaf(value);
+            CHARACTERS[value] = leaf;
+        }
+        return leaf;
+    }
+
+    public static PunctuationLeaf punctuation(char value) {
+        PunctuationLeaf leaf = PUNCTUATION[value];
+        if (leaf == null) {
+            leaf = new PunctuationLeaf(value);
+            PUNCTUATION[value] = leaf;
+        }
+        return leaf;
+    }
+}
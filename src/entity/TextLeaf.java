@@ -2,6 +2,8 @@ package entity;
 
 import processors.TextProcessor;
 
+import java.io.IOException;
+
 /**
  * Абстрактный класс для листовых компонентов
  */
@@ -21,6 +23,11 @@ public abstract class TextLeaf implements Component {
         return String.valueOf(value);
     }
 
+    @Override
+    public void getText(Appendable out) throws IOException {
+        out.append(value);
+    }
+
     @Override
     public int countElements() {
         return 1;
@@ -1,6 +1,8 @@
 package exception;
 
 public class FileProcessingException  extends TextProcessingException{
+    private static final long serialVersionUID = 1L;
+
     public FileProcessingException() {
         super();
     }
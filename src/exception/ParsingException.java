@@ -1,6 +1,8 @@
 package exception;
 
 public class ParsingException extends TextProcessingException {
+    private static final long serialVersionUID = 1L;
+
     public ParsingException() {
         super();
     }
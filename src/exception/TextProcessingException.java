@@ -1,6 +1,8 @@
 package exception;
 
 public class TextProcessingException  extends Exception{
+    private static final long serialVersionUID = 1L;
+
     public TextProcessingException() {
         super();
     }
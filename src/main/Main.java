@@ -1,10 +1,55 @@
 package main;
 
+import com.beust.jcommander.JCommander;
+import com.beust.jcommander.ParameterException;
+import exception.TextProcessingException;
+import run.BatchResult;
+import run.CommandLineOptions;
 import run.Runner;
 
 public class Main {
+    private static final String PRODUCTION_LOGGING_CONFIG = "log4j2-production.xml";
+
     public static void main(String[] args) {
+        if (args.length == 0) {
+            new Runner().processText();
+            return;
+        }
+
+        CommandLineOptions options = new CommandLineOptions();
+        JCommander commander = JCommander.newBuilder()
+                .addObject(options)
+                .programName("text-processor")
+                .build();
+        try {
+            commander.parse(args);
+        } catch (ParameterException e) {
+            System.err.println("Ошибка: " + e.getMessage());
+            commander.usage();
+            System.exit(2);
+        }
+
+        if (options.isHelp()) {
+            commander.usage();
+            return;
+        }
+
+        // конфигурация логирования выбирается до первого обращения к LogManager
+        if (options.isProductionLogging() && System.getProperty("log4j2.configurationFile") == null) {
+            System.setProperty("log4j2.configurationFile", PRODUCTION_LOGGING_CONFIG);
+        }
         Runner runner = new Runner();
-        runner.processText();
+
+        try {
+            BatchResult result = runner.run(options);
+            // при выводе текста в stdout итог печатается в stderr, чтобы не смешиваться с текстом
+            ("-".equals(options.getOutput()) ? System.err : System.out).println(result);
+            if (result.getFilesFailed() > 0) {
+                System.exit(1);
+            }
+        } catch (TextProcessingException | IllegalArgumentException e) {
+            System.err.println("Ошибка: " + e.getMessage());
+            System.exit(1);
+        }
     }
-}
\ No newline at end of file
+}
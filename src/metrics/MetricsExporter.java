@@ -0,0 +1,109 @@
+package metrics;
+
+import exception.FileProcessingException;
+import write.Writer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Выгрузка метрик обработки в JSON и CSV
+ */
+public class MetricsExporter {
+    private static final String CSV_HEADER = "name,invocations,total_ns,document_visits,paragraph_visits,"
+            + "sentence_visits,word_visits,leaf_visits,sentences_modified,characters_removed,allocated_bytes";
+
+    private MetricsExporter() {
+    }
+
+    public static String toJson(ProcessingMetrics metrics) {
+        StringBuilder sb = new StringBuilder(512);
+        sb.append("{\n  \"phases\": {");
+        ProcessingMetrics.Phase[] phases = ProcessingMetrics.Phase.values();
+        for (int i = 0; i < phases.length; i++) {
+            sb.append(i > 0 ? ", " : "")
+                    .append('"').append(phases[i].name().toLowerCase(Locale.ROOT)).append("_ns\": ")
+                    .append(metrics.getPhaseNanos(phases[i]));
+        }
+        sb.append("},\n  \"stages\": [");
+
+        List<StageMetrics> stages = metrics.getStages();
+        for (int i = 0; i < stages.size(); i++) {
+            StageMetrics stage = stages.get(i);
+            sb.append(i > 0 ? "," : "").append("\n    {")
+                    .append("\"name\": \"").append(escape(stage.getName())).append("\", ")
+                    .append("\"invocations\": ").append(stage.getInvocations()).append(", ")
+                    .append("\"total_ns\": ").append(stage.getTotalNanos()).append(", ")
+                    .append("\"visits\": {")
+                    .append("\"document\": ").append(stage.getDocumentVisits()).append(", ")
+                    .append("\"paragraph\": ").append(stage.getParagraphVisits()).append(", ")
+                    .append("\"sentence\": ").append(stage.getSentenceVisits()).append(", ")
+                    .append("\"word\": ").append(stage.getWordVisits()).append(", ")
+                    .append("\"leaf\": ").append(stage.getLeafVisits()).append("}, ")
+                    .append("\"sentences_modified\": ").append(stage.getSentencesModified()).append(", ")
+                    .append("\"characters_removed\": ").append(stage.getCharactersRemoved()).append(", ")
+                    .append("\"allocated_bytes\": ").append(stage.getEstimatedAllocatedBytes())
+                    .append('}');
+        }
+        sb.append(stages.isEmpty() ? "]\n}\n" : "\n  ]\n}\n");
+        return sb.toString();
+    }
+
+    /**
+     * Строки этапов конвейера и строки "phase:..." со временем этапов обработки
+     */
+    public static String toCsv(ProcessingMetrics metrics) {
+        StringBuilder sb = new StringBuilder(512);
+        sb.append(CSV_HEADER).append('\n');
+        for (ProcessingMetrics.Phase phase : ProcessingMetrics.Phase.values()) {
+            sb.append("phase:").append(phase.name().toLowerCase(Locale.ROOT))
+                    .append(",,").append(metrics.getPhaseNanos(phase))
+                    .append(",,,,,,,,\n");
+        }
+        for (StageMetrics stage : metrics.getStages()) {
+            sb.append(csvField(stage.getName())).append(',')
+                    .append(stage.getInvocations()).append(',')
+                    .append(stage.getTotalNanos()).append(',')
+                    .append(stage.getDocumentVisits()).append(',')
+                    .append(stage.getParagraphVisits()).append(',')
+                    .append(stage.getSentenceVisits()).append(',')
+                    .append(stage.getWordVisits()).append(',')
+                    .append(stage.getLeafVisits()).append(',')
+                    .append(stage.getSentencesModified()).append(',')
+                    .append(stage.getCharactersRemoved()).append(',')
+                    .append(stage.getEstimatedAllocatedBytes()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    public static void writeJson(ProcessingMetrics metrics, String filename) throws FileProcessingException {
+        Writer.writeFile(filename, out -> out.append(toJson(metrics)), StandardCharsets.UTF_8, true, false);
+    }
+
+    public static void writeCsv(ProcessingMetrics metrics, String filename) throws FileProcessingException {
+        Writer.writeFile(filename, out -> out.append(toCsv(metrics)), StandardCharsets.UTF_8, true, false);
+    }
+
+    private static String escape(String value) {
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < ' ') {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,154 @@
+package metrics;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Метрики обработки: время чтения, парсинга, обработки и записи и счетчики
+ * этапов конвейера. Этапы с одинаковыми именами из разных конвейеров
+ * (например, по одному конвейеру на файл) учитываются вместе
+ */
+public class ProcessingMetrics implements ProcessingMetricsMBean {
+    private static final Logger logger = LogManager.getLogger(ProcessingMetrics.class);
+
+    public enum Phase {
+        READ, PARSE, PROCESS, WRITE
+    }
+
+    private final LongAdder[] phaseNanos = new LongAdder[Phase.values().length];
+    private final Map<String, StageMetrics> stages = new LinkedHashMap<>();
+    private String domain;
+
+    public ProcessingMetrics() {
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Возвращает счетчики этапа с заданным именем, создавая их при первом обращении
+     */
+    public synchronized StageMetrics stage(String name) {
+        StageMetrics metrics = stages.get(name);
+        if (metrics == null) {
+            metrics = new StageMetrics(name);
+            stages.put(name, metrics);
+            if (domain != null) {
+                registerMBean(metrics, stageName(domain, name));
+            }
+        }
+        return metrics;
+    }
+
+    public synchronized List<StageMetrics> getStages() {
+        return new ArrayList<>(stages.values());
+    }
+
+    /**
+     * Добавляет время этапа, отсчитанное от startNanos (System.nanoTime)
+     */
+    public void recordPhase(Phase phase, long startNanos) {
+        phaseNanos[phase.ordinal()].add(System.nanoTime() - startNanos);
+    }
+
+    public long getPhaseNanos(Phase phase) {
+        return phaseNanos[phase.ordinal()].sum();
+    }
+
+    @Override
+    public long getReadNanos() {
+        return getPhaseNanos(Phase.READ);
+    }
+
+    @Override
+    public long getParseNanos() {
+        return getPhaseNanos(Phase.PARSE);
+    }
+
+    @Override
+    public long getProcessNanos() {
+        return getPhaseNanos(Phase.PROCESS);
+    }
+
+    @Override
+    public long getWriteNanos() {
+        return getPhaseNanos(Phase.WRITE);
+    }
+
+    @Override
+    public synchronized String[] getStageNames() {
+        return stages.keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public String getJson() {
+        return MetricsExporter.toJson(this);
+    }
+
+    @Override
+    public String getCsv() {
+        return MetricsExporter.toCsv(this);
+    }
+
+    @Override
+    public synchronized void reset() {
+        for (LongAdder adder : phaseNanos) {
+            adder.reset();
+        }
+        for (StageMetrics metrics : stages.values()) {
+            metrics.reset();
+        }
+    }
+
+    /**
+     * Регистрирует метрики и счетчики всех этапов, в том числе созданных позже,
+     * в платформенном MBeanServer под доменом domain. Ошибки регистрации
+     * не прерывают обработку
+     */
+    public synchronized void registerMBeans(String domain) {
+        this.domain = domain;
+        registerMBean(this, domain + ":type=Processing");
+        for (StageMetrics metrics : stages.values()) {
+            registerMBean(metrics, stageName(domain, metrics.getName()));
+        }
+    }
+
+    private static String stageName(String domain, String stage) {
+        return domain + ":type=Stage,name=" + ObjectName.quote(stage);
+    }
+
+    /**
+     * Регистрирует bean под именем name, заменяя ранее зарегистрированный;
+     * ошибка регистрации только записывается в лог
+     */
+    public static void registerMBean(Object bean, String name) {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            ObjectName objectName = new ObjectName(name);
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+            server.registerMBean(bean, objectName);
+            logger.debug("Зарегистрирован MBean: {}", objectName);
+        } catch (JMException e) {
+            logger.warn("Не удалось зарегистрировать MBean: {}", name, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ProcessingMetrics{read=%.3f ms, parse=%.3f ms, process=%.3f ms, write=%.3f ms, stages=%s}",
+                getReadNanos() / 1e6, getParseNanos() / 1e6, getProcessNanos() / 1e6, getWriteNanos() / 1e6,
+                getStages());
+    }
+}
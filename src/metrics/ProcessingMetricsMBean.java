@@ -0,0 +1,22 @@
+package metrics;
+
+/**
+ * Время этапов обработки и сводка по этапам конвейера, доступные через JMX
+ */
+public interface ProcessingMetricsMBean {
+    long getReadNanos();
+
+    long getParseNanos();
+
+    long getProcessNanos();
+
+    long getWriteNanos();
+
+    String[] getStageNames();
+
+    String getJson();
+
+    String getCsv();
+
+    void reset();
+}
@@ -0,0 +1,174 @@
+package metrics;
+
+import processors.NodeKind;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счетчики одного этапа конвейера: посещения узлов по видам, время, измененные
+ * предложения, удаленные символы и оценка выделенной памяти. Память замеряется
+ * выборочно (в среднем один вызов из ALLOCATION_SAMPLE_RATE) и пересчитывается
+ * на все вызовы, поэтому счетчики можно держать включенными постоянно.
+ * Все счетчики потокобезопасны
+ */
+public class StageMetrics implements StageMetricsMBean {
+    private static final int ALLOCATION_SAMPLE_RATE = 32;
+
+    private static final com.sun.management.ThreadMXBean THREADS = allocationBean();
+
+    private final String name;
+    private final LongAdder[] visits = new LongAdder[NodeKind.values().length];
+    private final LongAdder nanos = new LongAdder();
+    private final LongAdder sentencesModified = new LongAdder();
+    private final LongAdder charactersRemoved = new LongAdder();
+    private final LongAdder allocationSamples = new LongAdder();
+    private final LongAdder sampledAllocatedBytes = new LongAdder();
+
+    public StageMetrics(String name) {
+        this.name = name;
+        for (int i = 0; i < visits.length; i++) {
+            visits[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Начинает выборочный замер памяти; возвращает -1, если этот вызов не замеряется.
+     * В виртуальных потоках счетчик памяти недоступен, и вызовы не замеряются
+     */
+    public long startAllocationSample() {
+        if (THREADS == null || ThreadLocalRandom.current().nextInt(ALLOCATION_SAMPLE_RATE) != 0) {
+            return -1;
+        }
+        return THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Учитывает один вызов этапа для узла вида kind
+     *
+     * @param allocationStart значение, полученное из startAllocationSample
+     */
+    public void record(NodeKind kind, long elapsedNanos, long allocationStart) {
+        visits[kind.ordinal()].increment();
+        nanos.add(elapsedNanos);
+        if (allocationStart >= 0) {
+            long allocated = THREADS.getCurrentThreadAllocatedBytes();
+            if (allocated >= allocationStart) {
+                sampledAllocatedBytes.add(allocated - allocationStart);
+                allocationSamples.increment();
+            }
+        }
+    }
+
+    /**
+     * Учитывает изменение узла этапом; removedCharacters может быть отрицательным,
+     * если текст стал длиннее
+     */
+    public void recordModification(NodeKind kind, long removedCharacters) {
+        if (kind == NodeKind.SENTENCE) {
+            sentencesModified.increment();
+        }
+        charactersRemoved.add(removedCharacters);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    public long getVisits(NodeKind kind) {
+        return visits[kind.ordinal()].sum();
+    }
+
+    @Override
+    public long getInvocations() {
+        long total = 0;
+        for (LongAdder adder : visits) {
+            total += adder.sum();
+        }
+        return total;
+    }
+
+    @Override
+    public long getTotalNanos() {
+        return nanos.sum();
+    }
+
+    @Override
+    public long getDocumentVisits() {
+        return getVisits(NodeKind.DOCUMENT);
+    }
+
+    @Override
+    public long getParagraphVisits() {
+        return getVisits(NodeKind.PARAGRAPH);
+    }
+
+    @Override
+    public long getSentenceVisits() {
+        return getVisits(NodeKind.SENTENCE);
+    }
+
+    @Override
+    public long getWordVisits() {
+        return getVisits(NodeKind.WORD) + getVisits(NodeKind.LEXEME);
+    }
+
+    @Override
+    public long getLeafVisits() {
+        return getVisits(NodeKind.CHARACTER) + getVisits(NodeKind.PUNCTUATION);
+    }
+
+    @Override
+    public long getSentencesModified() {
+        return sentencesModified.sum();
+    }
+
+    @Override
+    public long getCharactersRemoved() {
+        return charactersRemoved.sum();
+    }
+
+    /**
+     * Оценка памяти, выделенной этапом за все вызовы, или -1, если JVM это не поддерживает
+     * либо ни один вызов еще не попал в выборку
+     */
+    @Override
+    public long getEstimatedAllocatedBytes() {
+        long samples = allocationSamples.sum();
+        if (THREADS == null || samples == 0) {
+            return -1;
+        }
+        return sampledAllocatedBytes.sum() * getInvocations() / samples;
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder adder : visits) {
+            adder.reset();
+        }
+        nanos.reset();
+        sentencesModified.reset();
+        charactersRemoved.reset();
+        allocationSamples.reset();
+        sampledAllocatedBytes.reset();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("StageMetrics{name=%s, invocations=%d, time=%.3f ms, sentencesModified=%d, "
+                        + "charactersRemoved=%d, allocatedBytes~%d}",
+                name, getInvocations(), getTotalNanos() / 1e6, getSentencesModified(),
+                getCharactersRemoved(), getEstimatedAllocatedBytes());
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean sunBean && sunBean.isThreadAllocatedMemorySupported()) {
+            sunBean.setThreadAllocatedMemoryEnabled(true);
+            return sunBean;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,30 @@
+package metrics;
+
+/**
+ * Показатели одного этапа конвейера, доступные через JMX
+ */
+public interface StageMetricsMBean {
+    String getName();
+
+    long getInvocations();
+
+    long getTotalNanos();
+
+    long getDocumentVisits();
+
+    long getParagraphVisits();
+
+    long getSentenceVisits();
+
+    long getWordVisits();
+
+    long getLeafVisits();
+
+    long getSentencesModified();
+
+    long getCharactersRemoved();
+
+    long getEstimatedAllocatedBytes();
+
+    void reset();
+}
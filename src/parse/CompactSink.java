@@ -0,0 +1,37 @@
+package parse;
+
+import entity.CompactDocument;
+
+/**
+ * Записывает границы, найденные сканером, сразу в CompactDocument.Builder
+ */
+class CompactSink implements TokenSink {
+    private final CompactDocument.Builder builder;
+
+    CompactSink(CompactDocument.Builder builder) {
+        this.builder = builder;
+    }
+
+    @Override
+    public void paragraphStart() {
+    }
+
+    @Override
+    public void paragraphEnd() {
+        builder.endParagraph();
+    }
+
+    @Override
+    public void sentenceStart() {
+    }
+
+    @Override
+    public void sentenceEnd() {
+        builder.endSentence();
+    }
+
+    @Override
+    public void word(CharSequence text, int start, int end) {
+        builder.append(text, start, end).endWord();
+    }
+}
@@ -0,0 +1,94 @@
+package parse;
+
+/**
+ * Быстрый 64-битный хэш содержимого текста по схеме xxHash64: четыре независимых
+ * аккумулятора обрабатывают блоки по 16 символов, хвост досчитывается по 4 и по 1 символу.
+ * Хэш считается по UTF-16 кодам символов, поэтому не совпадает с xxHash64 байтов файла,
+ * но так же быстро перемешивает данные и не требует перекодирования
+ */
+public final class ContentHash {
+    private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME_3 = 0x165667B19E3779F9L;
+    private static final long PRIME_4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME_5 = 0x27D4EB2F165667C5L;
+
+    private ContentHash() {
+    }
+
+    public static long hash(CharSequence text) {
+        return hash(text, 0, text.length(), 0);
+    }
+
+    /**
+     * Хэш символов [start, end) с начальным значением seed
+     */
+    public static long hash(CharSequence text, int start, int end, long seed) {
+        int i = start;
+        long hash;
+
+        if (end - start >= 16) {
+            long v1 = seed + PRIME_1 + PRIME_2;
+            long v2 = seed + PRIME_2;
+            long v3 = seed;
+            long v4 = seed - PRIME_1;
+            int limit = end - 16;
+            while (i <= limit) {
+                v1 = round(v1, lane(text, i));
+                v2 = round(v2, lane(text, i + 4));
+                v3 = round(v3, lane(text, i + 8));
+                v4 = round(v4, lane(text, i + 12));
+                i += 16;
+            }
+            hash = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7)
+                    + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            hash = merge(hash, v1);
+            hash = merge(hash, v2);
+            hash = merge(hash, v3);
+            hash = merge(hash, v4);
+        } else {
+            hash = seed + PRIME_5;
+        }
+
+        hash += (long) (end - start) * 2;
+
+        while (i + 4 <= end) {
+            hash ^= round(0, lane(text, i));
+            hash = Long.rotateLeft(hash, 27) * PRIME_1 + PRIME_4;
+            i += 4;
+        }
+        while (i < end) {
+            hash ^= text.charAt(i) * PRIME_5;
+            hash = Long.rotateLeft(hash, 11) * PRIME_1;
+            i++;
+        }
+
+        hash ^= hash >>> 33;
+        hash *= PRIME_2;
+        hash ^= hash >>> 29;
+        hash *= PRIME_3;
+        hash ^= hash >>> 32;
+        return hash;
+    }
+
+    /**
+     * Четыре символа, упакованные в 64 бита
+     */
+    private static long lane(CharSequence text, int i) {
+        return text.charAt(i)
+                | (long) text.charAt(i + 1) << 16
+                | (long) text.charAt(i + 2) << 32
+                | (long) text.charAt(i + 3) << 48;
+    }
+
+    private static long round(long accumulator, long input) {
+        accumulator += input * PRIME_2;
+        accumulator = Long.rotateLeft(accumulator, 31);
+        return accumulator * PRIME_1;
+    }
+
+    private static long merge(long hash, long accumulator) {
+        hash ^= round(0, accumulator);
+        return hash * PRIME_1 + PRIME_4;
+    }
+}
@@ -0,0 +1,255 @@
+package parse;
+
+import entity.Component;
+import entity.CompositeTool;
+import entity.LeafFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Абзац или предложение, которые хранят только свой участок исходного текста
+ * и строят детей при первом обращении к ним: абзац делится на такие же ленивые
+ * предложения, предложение - на слова с листьями. Текст и число элементов
+ * считаются по участку без построения детей. Узлы держат ссылку на весь
+ * исходный текст, пока не построены
+ */
+public class LazyComposite extends CompositeTool {
+    private final CharSequence source;
+    private final int start;
+    private final int end;
+
+    LazyComposite(String name, CompositeType type, CharSequence source, int start, int end) {
+        super(name, type, true);
+        if (type != CompositeType.PARAGRAPH && type != CompositeType.SENTENCE) {
+            throw new IllegalArgumentException("Отложенное построение поддерживается только для абзацев и предложений");
+        }
+        this.source = source;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    protected List<Component> materialize() {
+        if (getType() == CompositeType.PARAGRAPH) {
+            SentenceSink sink = new SentenceSink(source);
+            TextScanner.scanParagraph(source, start, end, sink);
+            return sink.sentences;
+        }
+
+        List<Component> words = new ArrayList<>();
+        int wordStart = -1;
+        for (int i = start; i <= end; i++) {
+            if (i == end || TextScanner.isWhitespace(source.charAt(i))) {
+                if (wordStart >= 0) {
+                    CompositeTool word = new CompositeTool("word_" + words.size(), CompositeType.WORD);
+                    for (int c = wordStart; c < i; c++) {
+                        word.add(LeafFactory.leaf(source.charAt(c)));
+                    }
+                    words.add(word);
+                    wordStart = -1;
+                }
+            } else if (wordStart < 0) {
+                wordStart = i;
+            }
+        }
+        return words;
+    }
+
+    @Override
+    protected String deferredText() {
+        StringBuilder sb = new StringBuilder(end - start);
+        if (getType() == CompositeType.PARAGRAPH) {
+            TextScanner.scanParagraph(source, start, end, new TextSink(sb));
+            return sb.toString();
+        }
+
+        // Участок предложения начинается и кончается словом; слова копируются целиком
+        int wordStart = start;
+        for (int i = start; i < end; i++) {
+            if (TextScanner.isWhitespace(source.charAt(i))) {
+                if (wordStart >= 0) {
+                    sb.append(source, wordStart, i).append(' ');
+                    wordStart = -1;
+                }
+            } else if (wordStart < 0) {
+                wordStart = i;
+            }
+        }
+        return sb.append(source, wordStart, end).toString();
+    }
+
+    /**
+     * Длина текста по участку: непробельные символы и по одному разделителю между
+     * словами и предложениями
+     */
+    @Override
+    protected int deferredTextLength() {
+        if (getType() == CompositeType.PARAGRAPH) {
+            LengthSink sink = new LengthSink();
+            TextScanner.scanParagraph(source, start, end, sink);
+            return sink.length;
+        }
+
+        int length = 0;
+        boolean inWord = false;
+        for (int i = start; i < end; i++) {
+            if (TextScanner.isWhitespace(source.charAt(i))) {
+                inWord = false;
+            } else {
+                if (!inWord && length > 0) {
+                    length++;
+                }
+                inWord = true;
+                length++;
+            }
+        }
+        return length;
+    }
+
+    @Override
+    protected CompositeTool deferredCopy() {
+        return new LazyComposite(getName(), getType(), source, start, end);
+    }
+
+    /**
+     * Число листьев - непробельных символов участка; дети при этом не строятся
+     */
+    @Override
+    public int countElements() {
+        if (isMaterialized()) {
+            return super.countElements();
+        }
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            if (!TextScanner.isWhitespace(source.charAt(i))) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Делит абзац на ленивые предложения: предложение занимает участок
+     * от начала первого слова до конца последнего
+     */
+    private static class SentenceSink implements TokenSink {
+        private final CharSequence source;
+        private final List<Component> sentences = new ArrayList<>();
+        private int sentenceStart = -1;
+        private int sentenceEnd;
+
+        SentenceSink(CharSequence source) {
+            this.source = source;
+        }
+
+        @Override
+        public void paragraphStart() {
+        }
+
+        @Override
+        public void paragraphEnd() {
+        }
+
+        @Override
+        public void sentenceStart() {
+            sentenceStart = -1;
+        }
+
+        @Override
+        public void sentenceEnd() {
+            sentences.add(new LazyComposite("sentence_" + sentences.size(), CompositeType.SENTENCE,
+                    source, sentenceStart, sentenceEnd));
+        }
+
+        @Override
+        public void word(CharSequence text, int start, int end) {
+            if (sentenceStart < 0) {
+                sentenceStart = start;
+            }
+            sentenceEnd = end;
+        }
+    }
+
+    /**
+     * Считает длину текста абзаца с теми же разделителями, что у getText дерева
+     */
+    private static class LengthSink implements TokenSink {
+        private int length;
+        private boolean firstSentence = true;
+        private boolean firstWord;
+
+        @Override
+        public void paragraphStart() {
+        }
+
+        @Override
+        public void paragraphEnd() {
+        }
+
+        @Override
+        public void sentenceStart() {
+            if (!firstSentence) {
+                length++;
+            }
+            firstSentence = false;
+            firstWord = true;
+        }
+
+        @Override
+        public void sentenceEnd() {
+        }
+
+        @Override
+        public void word(CharSequence text, int start, int end) {
+            if (!firstWord) {
+                length++;
+            }
+            firstWord = false;
+            length += end - start;
+        }
+    }
+
+    /**
+     * Собирает текст абзаца с теми же разделителями, что у getText дерева
+     */
+    private static class TextSink implements TokenSink {
+        private final StringBuilder sb;
+        private boolean firstSentence = true;
+        private boolean firstWord;
+
+        TextSink(StringBuilder sb) {
+            this.sb = sb;
+        }
+
+        @Override
+        public void paragraphStart() {
+        }
+
+        @Override
+        public void paragraphEnd() {
+        }
+
+        @Override
+        public void sentenceStart() {
+            if (!firstSentence) {
+                sb.append('\n');
+            }
+            firstSentence = false;
+            firstWord = true;
+        }
+
+        @Override
+        public void sentenceEnd() {
+        }
+
+        @Override
+        public void word(CharSequence text, int start, int end) {
+            if (!firstWord) {
+                sb.append(' ');
+            }
+            firstWord = false;
+            sb.append(text, start, end);
+        }
+    }
+}
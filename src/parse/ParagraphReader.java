@@ -0,0 +1,134 @@
+package parse;
+
+import entity.CompositeTool;
+import exception.FileProcessingException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import read.TextSource;
+import statistics.StatisticsCollector;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Потоковый разбор по абзацам: читает источник построчно и отдает абзацы по одному,
+ * как только встречена красная строка следующего абзаца или конец ввода.
+ * В памяти держится только текущий абзац, поэтому объем ввода не ограничен,
+ * но один абзац должен помещаться в память: текст без красных строк - это один абзац.
+ * Абзац длиннее maxParagraphChars (по умолчанию DEFAULT_MAX_PARAGRAPH_CHARS) не делится,
+ * так как это изменило бы результат, а отклоняется с FileProcessingException.
+ * Границы абзацев те же, что у TextScanner.findParagraphs
+ */
+public class ParagraphReader implements Closeable {
+    private static final Logger logger = LogManager.getLogger(ParagraphReader.class);
+
+    /**
+     * Предел длины абзаца по умолчанию, в символах (128 МБ в памяти)
+     */
+    public static final int DEFAULT_MAX_PARAGRAPH_CHARS = 64 * 1024 * 1024;
+
+    private final TextSource source;
+    private final StatisticsCollector statistics;
+    private final int maxParagraphChars;
+    private final StringBuilder line = new StringBuilder(256);
+    private final StringBuilder paragraph = new StringBuilder(4096);
+    private final StringBuilder carry = new StringBuilder(256);
+    private boolean hasCarry = false;
+    private int paragraphCount = 0;
+
+    public ParagraphReader(TextSource source) {
+        this(source, null);
+    }
+
+    /**
+     * @param statistics сборщик статистики разобранного текста, может быть null
+     */
+    public ParagraphReader(TextSource source, StatisticsCollector statistics) {
+        this(source, statistics, DEFAULT_MAX_PARAGRAPH_CHARS);
+    }
+
+    /**
+     * @param statistics        сборщик статистики разобранного текста, может быть null
+     * @param maxParagraphChars наибольшая длина абзаца в символах
+     */
+    public ParagraphReader(TextSource source, StatisticsCollector statistics, int maxParagraphChars) {
+        if (maxParagraphChars <= 0) {
+            throw new IllegalArgumentException("Предел длины абзаца должен быть положительным");
+        }
+        this.source = source;
+        this.statistics = statistics;
+        this.maxParagraphChars = maxParagraphChars;
+    }
+
+    /**
+     * Возвращает текст следующего абзаца или null, если ввод исчерпан.
+     * Возвращаемый буфер переиспользуется и действителен до следующего вызова.
+     * Если абзац длиннее maxParagraphChars, бросает FileProcessingException
+     */
+    public CharSequence nextParagraphText() throws FileProcessingException {
+        paragraph.setLength(0);
+        boolean started = false;
+        if (hasCarry) {
+            paragraph.append(carry);
+            hasCarry = false;
+            started = true;
+        }
+
+        while (source.readLine(line)) {
+            boolean startsParagraph = TextScanner.isRedLine(line, 0)
+                    || !started && !TextScanner.isBlankLine(line, 0);
+
+            if (startsParagraph && started) {
+                carry.setLength(0);
+                carry.append(line);
+                hasCarry = true;
+                break;
+            }
+            if (!started && !startsParagraph) {
+                continue;
+            }
+
+            if ((long) paragraph.length() + line.length() + (started ? 1 : 0) > maxParagraphChars) {
+                logger.error("Абзац {} длиннее {} символов", paragraphCount, maxParagraphChars);
+                throw new FileProcessingException("Абзац " + paragraphCount + " длиннее " + maxParagraphChars
+                        + " символов: потоковый разбор держит абзац в памяти целиком. Разделите текст"
+                        + " красными строками или увеличьте --max-paragraph-chars");
+            }
+            if (started) {
+                paragraph.append('\n');
+            }
+            paragraph.append(line);
+            started = true;
+        }
+
+        return started ? paragraph : null;
+    }
+
+    /**
+     * Разбирает следующий абзац в дерево или возвращает null, если ввод исчерпан
+     */
+    public CompositeTool next() throws FileProcessingException {
+        CharSequence text = nextParagraphText();
+        if (text == null) {
+            logger.debug("Потоковый разбор завершен, абзацев: {}", paragraphCount);
+            return null;
+        }
+        return TreeBuilder.buildParagraph(text, 0, text.length(), paragraphCount++, statistics);
+    }
+
+    /**
+     * Сборщик статистики, переданный при создании, или null
+     */
+    public StatisticsCollector getStatistics() {
+        return statistics;
+    }
+
+    public int getParagraphCount() {
+        return paragraphCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        source.close();
+    }
+}
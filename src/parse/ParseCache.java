@@ -0,0 +1,247 @@
+package parse;
+
+import entity.Component;
+import entity.CompositeTool;
+import exception.ParsingException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import processors.ProcessorPipeline;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кэш перед TextParser для повторяющихся документов. Ключ - 64-битный хэш
+ * содержимого (ContentHash) и длина текста; при совпадении ключа текст
+ * дополнительно сравнивается с сохраненным, так что коллизия хэша не приводит
+ * к чужому результату. Хранятся разобранные деревья и, отдельно для каждой
+ * конфигурации обработчиков, готовый обработанный текст.
+ * Вытеснение - LRU с ограничением по числу записей и по оценке занимаемой памяти.
+ * Деревья хранятся замороженными (CompositeTool.freeze); parse выдает изменяемую
+ * копию, потому что обработчики изменяют дерево на месте, parseShared - само
+ * общее дерево без копирования.
+ * Кэш потокобезопасен; разбор при промахе выполняется вне блокировки
+ */
+public class ParseCache implements ParseCacheMBean {
+    private static final Logger logger = LogManager.getLogger(ParseCache.class);
+
+    /**
+     * Оценка памяти замороженного дерева на символ текста: ссылки на листья и узлы слов и предложений
+     */
+    private static final int TREE_BYTES_PER_CHAR = 16;
+
+    private final TextParser parser;
+    private final int maxEntries;
+    private final long maxWeightBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Key, CompletableFuture<Entry>> loading = new HashMap<>();
+    private long weightBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxEntries     наибольшее число записей
+     * @param maxWeightBytes наибольший суммарный объем записей (оценка в байтах)
+     */
+    public ParseCache(TextParser parser, int maxEntries, long maxWeightBytes) {
+        if (maxEntries <= 0 || maxWeightBytes <= 0) {
+            throw new IllegalArgumentException("Размер кэша должен быть положительным");
+        }
+        this.parser = parser;
+        this.maxEntries = maxEntries;
+        this.maxWeightBytes = maxWeightBytes;
+    }
+
+    /**
+     * Разбирает текст или берет дерево из кэша; возвращается собственная копия вызывающего
+     */
+    public Component parse(CharSequence text) throws ParsingException {
+        Component document = parseShared(text);
+        return document instanceof CompositeTool composite ? composite.copy() : document;
+    }
+
+    /**
+     * Разбирает текст или берет дерево из кэша без копирования. Дерево заморожено
+     * и общее для всех вызывающих: его можно читать из любых потоков, но не изменять
+     */
+    public Component parseShared(CharSequence text) throws ParsingException {
+        String source = text == null ? "" : text.toString();
+        Key key = new Key(ContentHash.hash(source), source.length(), null);
+
+        return (Component) get(key, source, value -> {
+            Component parsed = parser.parse(value);
+            if (parsed instanceof CompositeTool composite) {
+                composite.freeze();
+            }
+            return new Entry(value, parsed, (long) value.length() * (2 + TREE_BYTES_PER_CHAR));
+        });
+    }
+
+    /**
+     * Возвращает текст, обработанный конвейером, или результат из кэша.
+     * configuration должна однозначно описывать обработчики конвейера: результаты
+     * разных конфигураций хранятся раздельно. При попадании конвейер не запускается,
+     * поэтому этапы, накапливающие состояние (например, статистика), его не увидят.
+     * Дерево при промахе в кэш не кладется - хранится только результат
+     */
+    public String process(CharSequence text, String configuration, ProcessorPipeline pipeline)
+            throws ParsingException {
+        String source = text == null ? "" : text.toString();
+        Key key = new Key(ContentHash.hash(source), source.length(), configuration);
+
+        return (String) get(key, source, value -> {
+            Component document = parser.parse(value);
+            pipeline.run(document);
+            String processed = document.getText();
+            return new Entry(value, processed, 2L * (value.length() + processed.length()));
+        });
+    }
+
+    /**
+     * Значение из кэша или результат loader. Одновременные промахи по одному ключу
+     * ждут первую загрузку вместо того, чтобы повторять разбор
+     */
+    private Object get(Key key, String source, Loader loader) throws ParsingException {
+        Entry entry;
+        CompletableFuture<Entry> pending;
+        CompletableFuture<Entry> own = null;
+        synchronized (this) {
+            entry = entries.get(key);
+            pending = entry == null ? loading.get(key) : null;
+            if (entry == null && pending == null) {
+                own = new CompletableFuture<>();
+                loading.put(key, own);
+            }
+        }
+
+        if (entry == null && pending != null) {
+            try {
+                entry = pending.join();
+            } catch (CompletionException e) {
+                // Ошибка первой загрузки; текст разбирается заново и получает собственное исключение
+                misses.increment();
+                return loader.load(source).value;
+            }
+        }
+
+        if (entry != null) {
+            if (entry.source.equals(source)) {
+                hits.increment();
+                return entry.value;
+            }
+            logger.warn("Коллизия хэша содержимого: {}", key);
+            misses.increment();
+            return loader.load(source).value;
+        }
+
+        misses.increment();
+        try {
+            Entry loaded = loader.load(source);
+            store(key, loaded);
+            own.complete(loaded);
+            return loaded.value;
+        } catch (ParsingException | RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            synchronized (this) {
+                loading.remove(key);
+            }
+        }
+    }
+
+    private synchronized void store(Key key, Entry entry) {
+        if (entry.weightBytes > maxWeightBytes) {
+            logger.debug("Запись не помещается в кэш: {} байт", entry.weightBytes);
+            return;
+        }
+
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            weightBytes -= previous.weightBytes;
+        }
+        weightBytes += entry.weightBytes;
+
+        Iterator<Map.Entry<Key, Entry>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || weightBytes > maxWeightBytes) && eldest.hasNext()) {
+            Entry evicted = eldest.next().getValue();
+            eldest.remove();
+            weightBytes -= evicted.weightBytes;
+            evictions.increment();
+        }
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public double getHitRate() {
+        long hitCount = getHits();
+        long total = hitCount + getMisses();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public synchronized int getEntries() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized long getWeightBytes() {
+        return weightBytes;
+    }
+
+    @Override
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    @Override
+    public long getMaxWeightBytes() {
+        return maxWeightBytes;
+    }
+
+    @Override
+    public synchronized void clear() {
+        entries.clear();
+        weightBytes = 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ParseCache{hits=%d, misses=%d, hitRate=%.1f%%, evictions=%d, entries=%d, weight=%d bytes}",
+                getHits(), getMisses(), getHitRate() * 100, getEvictions(), getEntries(), getWeightBytes());
+    }
+
+    /**
+     * configuration == null - запись с деревом разбора
+     */
+    private record Key(long hash, int length, String configuration) {
+    }
+
+    private record Entry(String source, Object value, long weightBytes) {
+    }
+
+    private interface Loader {
+        Entry load(String source) throws ParsingException;
+    }
+}
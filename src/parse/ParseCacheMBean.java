@@ -0,0 +1,24 @@
+package parse;
+
+/**
+ * Показатели кэша разбора, доступные через JMX
+ */
+public interface ParseCacheMBean {
+    long getHits();
+
+    long getMisses();
+
+    long getEvictions();
+
+    double getHitRate();
+
+    int getEntries();
+
+    long getWeightBytes();
+
+    int getMaxEntries();
+
+    long getMaxWeightBytes();
+
+    void clear();
+}
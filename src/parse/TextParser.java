@@ -4,9 +4,11 @@ import entity.*;
 import exception.ParsingException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import statistics.StatisticsCollector;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Парсер текста
@@ -14,14 +16,42 @@ import java.util.List;
 public class TextParser {
     private static final Logger logger = LogManager.getLogger(TextParser.class);
 
-    private static final int RED_LINE_INDENT = 4;
+    /**
+     * Тексты короче этого порога разбираются последовательно даже в параллельном режиме
+     */
+    private static final int PARALLEL_THRESHOLD = 64 * 1024;
+
+    /**
+     * Минимальный объем текста (в символах) на одну задачу fork-join
+     */
+    private static final int MIN_TASK_SIZE = 16 * 1024;
 
-    private static final boolean USE_TABS = true;
+    private final ForkJoinPool pool;
 
-    public Component parse(String text) throws ParsingException {
+    public TextParser() {
+        this(null);
+    }
+
+    /**
+     * Создает парсер, разбирающий абзацы параллельно в указанном пуле.
+     * При pool == null разбор выполняется последовательно
+     */
+    public TextParser(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public Component parse(CharSequence text) throws ParsingException {
+        return parse(text, null);
+    }
+
+    /**
+     * Разбирает текст, попутно подсчитывая абзацы, предложения и слова в statistics
+     * (может быть null)
+     */
+    public Component parse(CharSequence text, StatisticsCollector statistics) throws ParsingException {
         logger.debug("Начало парсинга текста");
 
-        if (text == null || text.trim().isEmpty()) {
+        if (text == null || TextScanner.isBlank(text)) {
             logger.warn("Попытка парсинга пустого текста");
             return new CompositeTool("empty", CompositeTool.CompositeType.DOCUMENT);
         }
@@ -29,64 +59,18 @@ public class TextParser {
         CompositeTool document = new CompositeTool("document", CompositeTool.CompositeType.DOCUMENT);
 
         try {
-            String[] lines = text.split("\n");
-            logger.debug("Найдено строк: {}", lines.length);
-
-            List<String> currentParagraphLines = new ArrayList<>();
-            int paragraphCount = 0;
-            boolean inParagraph = false;
-
-            for (String line : lines) {
-                boolean isRedLine = isRedLine(line);
-
-                if (isRedLine) {
-                    if (inParagraph && !currentParagraphLines.isEmpty()) {
-                        String paragraphText = String.join("\n", currentParagraphLines);
-                        CompositeTool paragraph = parseParagraph(
-                                "paragraph_" + paragraphCount++,
-                                paragraphText
-                        );
-                        document.add(paragraph);
-                        currentParagraphLines.clear();
-                        logger.debug("Завершен абзац #{}, строк: {}",
-                                paragraphCount-1, paragraph.getComponents().size());
-                    }
-
-                    inParagraph = true;
-                    currentParagraphLines.add(line);
-                    logger.trace("Начало нового абзаца (красная строка): {}", line);
-                }
-                else if (inParagraph && !line.trim().isEmpty()) {
-                    currentParagraphLines.add(line);
-                    logger.trace("Продолжение абзаца: {}", line);
-                }
-                else if (inParagraph && line.trim().isEmpty()) {
-                    currentParagraphLines.add("");
-                    logger.trace("Пустая строка внутри абзаца");
-                }
-                else if (!inParagraph && !line.trim().isEmpty()) {
-                    inParagraph = true;
-                    currentParagraphLines.add(line);
-                    logger.debug("Начало первого абзаца: {}", line);
-                }
-                else if (!inParagraph && line.trim().isEmpty()) {
-                    logger.trace("Пустая строка до первого абзаца");
-                }
+            if (pool != null && text.length() >= PARALLEL_THRESHOLD) {
+                parseParallel(text, document, statistics);
+            } else {
+                TreeBuilder builder = new TreeBuilder(document);
+                TextScanner.scan(text, statistics != null ? statistics.counting(builder) : builder);
             }
 
-            if (!currentParagraphLines.isEmpty()) {
-                String paragraphText = String.join("\n", currentParagraphLines);
-                CompositeTool paragraph = parseParagraph(
-                        "paragraph_" + paragraphCount,
-                        paragraphText
-                );
-                document.add(paragraph);
-                logger.debug("Завершен последний абзац #{}, строк: {}",
-                        paragraphCount, paragraph.getComponents().size());
+            if (logger.isInfoEnabled()) {
+                // countElements обходит все дерево, поэтому считается только при включенном уровне
+                logger.info("Парсинг завершен успешно. Создано абзацев: {}, элементов: {}",
+                        document.childCount(), document.countElements());
             }
-
-            logger.info("Парсинг завершен успешно. Создано абзацев: {}, элементов: {}",
-                    document.getComponents().size(), document.countElements());
             return document;
 
         } catch (Exception e) {
@@ -96,80 +80,186 @@ public class TextParser {
     }
 
     /**
-     * Определяет, является ли строка красной строкой
+     * Разбирает текст одного абзаца; index - номер абзаца в документе.
+     * Используется при обработке по абзацам, когда границы абзацев уже найдены
      */
-    private boolean isRedLine(String line) {
-        if (line == null || line.isEmpty()) {
-            return false;
+    public CompositeTool parseParagraph(CharSequence text, int index, StatisticsCollector statistics)
+            throws ParsingException {
+        try {
+            return TreeBuilder.buildParagraph(text, 0, text.length(), index, statistics);
+        } catch (RuntimeException e) {
+            logger.error("Ошибка при парсинге абзаца {}", index, e);
+            throw new ParsingException("Ошибка при парсинге абзаца " + index, e);
         }
+    }
 
-        if (line.startsWith(" ")) {
-            int spaceCount = 0;
-            while (spaceCount < line.length() && line.charAt(spaceCount) == ' ') {
-                spaceCount++;
-            }
-            return spaceCount == RED_LINE_INDENT;
-        }
+    /**
+     * Разбирает текст лениво: находятся только границы абзацев, а предложения,
+     * слова и листья строятся при первом обращении к детям абзаца или предложения
+     * (см. LazyComposite). Текст документа совпадает с результатом parse.
+     * Если нужна статистика, она считается в том же проходе, что ищет границы абзацев.
+     * Дерево держит ссылку на text, поэтому text не должен меняться
+     */
+    public Component parseLazy(CharSequence text, StatisticsCollector statistics) throws ParsingException {
+        logger.debug("Начало ленивого парсинга текста");
 
-        if (USE_TABS && line.startsWith("\t")) {
-            logger.trace("Строка с табуляцией - красная строка: {}",
-                    line.substring(0, Math.min(10, line.length())) + "...");
-            return true;
+        if (text == null || TextScanner.isBlank(text)) {
+            logger.warn("Попытка парсинга пустого текста");
+            return new CompositeTool("empty", CompositeTool.CompositeType.DOCUMENT);
         }
 
-        return false;
+        CompositeTool document = new CompositeTool("document", CompositeTool.CompositeType.DOCUMENT);
+
+        try {
+            int[] bounds;
+            if (statistics != null) {
+                ParagraphBoundsSink sink = new ParagraphBoundsSink();
+                TextScanner.scan(text, statistics.counting(sink));
+                bounds = sink.bounds();
+            } else {
+                bounds = TextScanner.findParagraphs(text);
+            }
+            for (int i = 0; i < bounds.length / 2; i++) {
+                document.add(new LazyComposite("paragraph_" + i, CompositeTool.CompositeType.PARAGRAPH,
+                        text, bounds[2 * i], bounds[2 * i + 1]));
+            }
+
+            logger.info("Ленивый парсинг завершен успешно. Найдено абзацев: {}", document.childCount());
+            return document;
+
+        } catch (Exception e) {
+            logger.error("Ошибка при парсинге текста", e);
+            throw new ParsingException("Ошибка при парсинге текста", e);
+        }
     }
 
-    private CompositeTool parseParagraph(String name, String paragraphText) {
-        logger.debug("Парсинг абзаца '{}': {} символов", name, paragraphText.length());
-        CompositeTool paragraph = new CompositeTool(name, CompositeTool.CompositeType.PARAGRAPH);
+    /**
+     * Разбирает текст в компактное представление без дерева объектов
+     */
+    public CompactDocument parseCompact(CharSequence text) throws ParsingException {
+        logger.debug("Начало компактного парсинга текста");
 
-        String trimmedText = paragraphText.trim();
+        if (text == null || TextScanner.isBlank(text)) {
+            logger.warn("Попытка парсинга пустого текста");
+            return new CompactDocument.Builder().build();
+        }
 
-        String[] sentences = trimmedText.split("(?<=[.!?])\\s+");
-        logger.debug("Абзац '{}': найдено предложений: {}", name, sentences.length);
+        try {
+            CompactDocument.Builder builder = new CompactDocument.Builder(text.length());
+            TextScanner.scan(text, new CompactSink(builder));
+            CompactDocument document = builder.build();
 
-        for (int i = 0; i < sentences.length; i++) {
-            String sentenceText = sentences[i];
-            if (sentenceText.trim().isEmpty()) continue;
+            logger.info("Компактный парсинг завершен успешно. {}", document);
+            return document;
 
-            CompositeTool sentence = parseSentence("sentence_" + i, sentenceText.trim());
-            paragraph.add(sentence);
+        } catch (Exception e) {
+            logger.error("Ошибка при парсинге текста", e);
+            throw new ParsingException("Ошибка при парсинге текста", e);
         }
+    }
+
+    /**
+     * Сначала находит границы абзацев, затем разбирает абзацы в пуле
+     * и собирает документ в исходном порядке
+     */
+    private void parseParallel(CharSequence text, CompositeTool document, StatisticsCollector statistics) {
+        int[] bounds = TextScanner.findParagraphs(text);
+        CompositeTool[] paragraphs = new CompositeTool[bounds.length / 2];
+        logger.debug("Параллельный парсинг: абзацев {}, параллелизм пула {}",
+                paragraphs.length, pool.getParallelism());
+
+        pool.invoke(new ParagraphTask(text, bounds, paragraphs, statistics, 0, paragraphs.length));
 
-        return paragraph;
+        for (CompositeTool paragraph : paragraphs) {
+            document.add(paragraph);
+        }
     }
 
-    private CompositeTool parseSentence(String name, String sentenceText) {
-        logger.trace("Парсинг предложения '{}': {}", name, sentenceText);
-        CompositeTool sentence = new CompositeTool(name, CompositeTool.CompositeType.SENTENCE);
+    /**
+     * Запоминает границы абзацев по их словам: от начала первого слова до конца последнего.
+     * Такой участок разбирается так же, как участок от красной строки до следующей
+     * (см. TextScanner.findParagraphs); у абзаца без слов участок пустой
+     */
+    private static class ParagraphBoundsSink implements TokenSink {
+        private int[] bounds = new int[16];
+        private int count;
+        private int start;
+        private int end;
+
+        @Override
+        public void paragraphStart() {
+            start = -1;
+            end = 0;
+        }
 
-        String[] words = sentenceText.split("\\s+");
+        @Override
+        public void paragraphEnd() {
+            if (count + 2 > bounds.length) {
+                bounds = Arrays.copyOf(bounds, bounds.length * 2);
+            }
+            bounds[count++] = Math.max(start, 0);
+            bounds[count++] = end;
+        }
+
+        @Override
+        public void sentenceStart() {
+        }
 
-        for (int i = 0; i < words.length; i++) {
-            String wordText = words[i];
-            if (wordText.isEmpty()) continue;
+        @Override
+        public void sentenceEnd() {
+        }
 
-            CompositeTool word = parseWord("word_" + i, wordText);
-            sentence.add(word);
+        @Override
+        public void word(CharSequence text, int start, int end) {
+            if (this.start < 0) {
+                this.start = start;
+            }
+            this.end = end;
         }
 
-        return sentence;
+        int[] bounds() {
+            return Arrays.copyOf(bounds, count);
+        }
     }
 
-    private CompositeTool parseWord(String name, String wordText) {
-        logger.trace("Парсинг слова '{}': {}", name, wordText);
-        CompositeTool word = new CompositeTool(name, CompositeTool.CompositeType.WORD);
+    /**
+     * Задача разбора диапазона абзацев [from, to)
+     */
+    private static class ParagraphTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        // Задачи не сериализуются; поля помечены transient, чтобы не объявлять их сериализуемыми
+        private final transient CharSequence text;
+        private final int[] bounds;
+        private final transient CompositeTool[] paragraphs;
+        private final transient StatisticsCollector statistics;
+        private final int from;
+        private final int to;
+
+        ParagraphTask(CharSequence text, int[] bounds, CompositeTool[] paragraphs,
+                      StatisticsCollector statistics, int from, int to) {
+            this.text = text;
+            this.bounds = bounds;
+            this.paragraphs = paragraphs;
+            this.statistics = statistics;
+            this.from = from;
+            this.to = to;
+        }
 
-        for (int i = 0; i < wordText.length(); i++) {
-            char c = wordText.charAt(i);
-            if (Character.isLetterOrDigit(c)) {
-                word.add(new CharacterLeaf(c));
-            } else {
-                word.add(new PunctuationLeaf(c));
+        @Override
+        protected void compute() {
+            int size = bounds[2 * to - 1] - bounds[2 * from];
+            if (to - from == 1 || size < MIN_TASK_SIZE) {
+                for (int i = from; i < to; i++) {
+                    paragraphs[i] = TreeBuilder.buildParagraph(text, bounds[2 * i], bounds[2 * i + 1], i,
+                            statistics);
+                }
+                return;
             }
-        }
 
-        return word;
+            int middle = (from + to) >>> 1;
+            invokeAll(new ParagraphTask(text, bounds, paragraphs, statistics, from, middle),
+                    new ParagraphTask(text, bounds, paragraphs, statistics, middle, to));
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,201 @@
+package parse;
+
+import java.util.Arrays;
+
+/**
+ * Однопроходный сканер текста: за один просмотр находит границы абзацев,
+ * предложений и слов и передает их в TokenSink.
+ * Правила совпадают с прежним разбором через split:
+ * абзац начинается с красной строки (ровно 4 пробела или табуляция),
+ * предложение заканчивается пробельным промежутком после '.', '!' или '?',
+ * слова разделяются пробельными символами
+ */
+public final class TextScanner {
+    private static final int RED_LINE_INDENT = 4;
+
+    private static final boolean USE_TABS = true;
+
+    private TextScanner() {
+    }
+
+    /**
+     * Разбирает весь текст, определяя абзацы по ходу сканирования
+     */
+    public static void scan(CharSequence text, TokenSink sink) {
+        scan(text, 0, text.length(), sink, true);
+    }
+
+    /**
+     * Разбирает фрагмент text[start, end) как один абзац, границы которого уже известны
+     */
+    public static void scanParagraph(CharSequence text, int start, int end, TokenSink sink) {
+        sink.paragraphStart();
+        scan(text, start, end, sink, false);
+        sink.paragraphEnd();
+    }
+
+    /**
+     * Находит только границы абзацев, не разбирая их содержимое.
+     * Возвращает пары [начало, конец) подряд: {start0, end0, start1, end1, ...}
+     */
+    public static int[] findParagraphs(CharSequence text) {
+        int length = text.length();
+        int[] bounds = new int[16];
+        int count = 0;
+        int paragraphStart = -1;
+
+        int lineStart = 0;
+        while (lineStart < length) {
+            boolean startsParagraph = isRedLine(text, lineStart)
+                    || paragraphStart < 0 && !isBlankLine(text, lineStart);
+
+            if (startsParagraph) {
+                if (paragraphStart >= 0) {
+                    if (count + 2 > bounds.length) {
+                        bounds = Arrays.copyOf(bounds, bounds.length * 2);
+                    }
+                    bounds[count++] = paragraphStart;
+                    bounds[count++] = lineStart;
+                }
+                paragraphStart = lineStart;
+            }
+
+            int i = lineStart;
+            while (i < length && text.charAt(i) != '\n') {
+                i++;
+            }
+            lineStart = i + 1;
+        }
+
+        if (paragraphStart >= 0) {
+            if (count + 2 > bounds.length) {
+                bounds = Arrays.copyOf(bounds, count + 2);
+            }
+            bounds[count++] = paragraphStart;
+            bounds[count++] = length;
+        }
+
+        return Arrays.copyOf(bounds, count);
+    }
+
+    private static void scan(CharSequence text, int from, int to, TokenSink sink, boolean detectParagraphs) {
+        boolean inParagraph = !detectParagraphs;
+        boolean sentenceOpen = false;
+        boolean lastWordEndsSentence = false;
+        int wordStart = -1;
+        boolean lineStart = detectParagraphs;
+
+        for (int i = from; i < to; i++) {
+            if (lineStart) {
+                lineStart = false;
+                if (isRedLine(text, i)) {
+                    if (inParagraph) {
+                        if (sentenceOpen) {
+                            sink.sentenceEnd();
+                            sentenceOpen = false;
+                        }
+                        sink.paragraphEnd();
+                    }
+                    sink.paragraphStart();
+                    inParagraph = true;
+                    lastWordEndsSentence = false;
+                } else if (!inParagraph && !isBlankLine(text, i)) {
+                    sink.paragraphStart();
+                    inParagraph = true;
+                }
+            }
+
+            char c = text.charAt(i);
+            if (!inParagraph) {
+                lineStart = c == '\n';
+            } else if (isWhitespace(c)) {
+                if (wordStart >= 0) {
+                    sink.word(text, wordStart, i);
+                    lastWordEndsSentence = isSentenceEnd(text.charAt(i - 1));
+                    wordStart = -1;
+                }
+                if (c == '\n') {
+                    lineStart = detectParagraphs;
+                }
+            } else if (wordStart < 0) {
+                if (sentenceOpen && lastWordEndsSentence) {
+                    sink.sentenceEnd();
+                    sentenceOpen = false;
+                }
+                if (!sentenceOpen) {
+                    sink.sentenceStart();
+                    sentenceOpen = true;
+                }
+                wordStart = i;
+            }
+        }
+
+        if (wordStart >= 0) {
+            sink.word(text, wordStart, to);
+        }
+        if (sentenceOpen) {
+            sink.sentenceEnd();
+        }
+        if (inParagraph && detectParagraphs) {
+            sink.paragraphEnd();
+        }
+    }
+
+    /**
+     * Проверяет, есть ли в тексте хотя бы один непробельный символ
+     */
+    public static boolean isBlank(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Определяет, является ли строка, начинающаяся с lineStart, красной строкой
+     */
+    static boolean isRedLine(CharSequence text, int lineStart) {
+        int length = text.length();
+        if (lineStart >= length) {
+            return false;
+        }
+
+        char first = text.charAt(lineStart);
+        if (first == ' ') {
+            int spaceCount = 0;
+            while (lineStart + spaceCount < length && text.charAt(lineStart + spaceCount) == ' ') {
+                spaceCount++;
+            }
+            return spaceCount == RED_LINE_INDENT;
+        }
+
+        return USE_TABS && first == '\t';
+    }
+
+    static boolean isBlankLine(CharSequence text, int lineStart) {
+        int length = text.length();
+        for (int i = lineStart; i < length; i++) {
+            char c = text.charAt(i);
+            if (c == '\n') {
+                return true;
+            }
+            if (c > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Пробельные символы в смысле регулярного выражения \s
+     */
+    static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\t' || c == '\r' || c == '\f' || c == '\u000B';
+    }
+
+    static boolean isSentenceEnd(char c) {
+        return c == '.' || c == '!' || c == '?';
+    }
+}
@@ -0,0 +1,19 @@
+package parse;
+
+/**
+ * Получатель границ, найденных TextScanner
+ */
+public interface TokenSink {
+    void paragraphStart();
+
+    void paragraphEnd();
+
+    void sentenceStart();
+
+    void sentenceEnd();
+
+    /**
+     * Слово занимает символы text[start, end)
+     */
+    void word(CharSequence text, int start, int end);
+}
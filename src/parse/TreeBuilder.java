@@ -0,0 +1,76 @@
+package parse;
+
+import entity.CompositeTool;
+import entity.LeafFactory;
+import statistics.StatisticsCollector;
+
+/**
+ * Строит дерево CompositeTool непосредственно из границ, найденных сканером
+ */
+class TreeBuilder implements TokenSink {
+    private final CompositeTool document;
+    private CompositeTool paragraph;
+    private CompositeTool sentence;
+    private CompositeTool lastParagraph;
+    private int paragraphCount;
+    private int sentenceCount;
+    private int wordCount;
+
+    TreeBuilder(CompositeTool document) {
+        this(document, 0);
+    }
+
+    TreeBuilder(CompositeTool document, int firstParagraphIndex) {
+        this.document = document;
+        this.paragraphCount = firstParagraphIndex;
+    }
+
+    @Override
+    public void paragraphStart() {
+        paragraph = new CompositeTool("paragraph_" + paragraphCount++, CompositeTool.CompositeType.PARAGRAPH);
+        sentenceCount = 0;
+    }
+
+    @Override
+    public void paragraphEnd() {
+        if (document != null) {
+            document.add(paragraph);
+        }
+        lastParagraph = paragraph;
+        paragraph = null;
+    }
+
+    @Override
+    public void sentenceStart() {
+        sentence = new CompositeTool("sentence_" + sentenceCount++, CompositeTool.CompositeType.SENTENCE);
+        wordCount = 0;
+    }
+
+    @Override
+    public void sentenceEnd() {
+        paragraph.add(sentence);
+        sentence = null;
+    }
+
+    @Override
+    public void word(CharSequence text, int start, int end) {
+        CompositeTool word = new CompositeTool("word_" + wordCount++, CompositeTool.CompositeType.WORD);
+
+        for (int i = start; i < end; i++) {
+            word.add(LeafFactory.leaf(text.charAt(i)));
+        }
+
+        sentence.add(word);
+    }
+
+    /**
+     * Строит отдельный абзац с заданным номером по известным границам;
+     * statistics (может быть null) учитывает найденные элементы
+     */
+    static CompositeTool buildParagraph(CharSequence text, int start, int end, int index,
+                                        StatisticsCollector statistics) {
+        TreeBuilder builder = new TreeBuilder(null, index);
+        TextScanner.scanParagraph(text, start, end, statistics != null ? statistics.counting(builder) : builder);
+        return builder.lastParagraph;
+    }
+}
@@ -0,0 +1,46 @@
+package processors;
+
+/**
+ * Пара ограничителей удаляемой подстроки, например "(" и ")" или "/*" и "*&#47;"
+ */
+public final class DelimiterPair {
+    private final String open;
+    private final String close;
+
+    public DelimiterPair(String open, String close) {
+        if (open == null || open.isEmpty() || close == null || close.isEmpty()) {
+            throw new IllegalArgumentException("Ограничители не могут быть пустыми");
+        }
+        this.open = open;
+        this.close = close;
+    }
+
+    public DelimiterPair(char open, char close) {
+        this(String.valueOf(open), String.valueOf(close));
+    }
+
+    public String getOpen() {
+        return open;
+    }
+
+    public String getClose() {
+        return close;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DelimiterPair other)) return false;
+        return open.equals(other.open) && close.equals(other.close);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * open.hashCode() + close.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return open + "..." + close;
+    }
+}
@@ -0,0 +1,137 @@
+package processors;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Автомат Ахо-Корасик над набором маркеров: за один проход по тексту
+ * сообщает обо всех вхождениях всех маркеров
+ */
+final class MarkerAutomaton {
+    private static final int[] NO_MARKERS = new int[0];
+
+    // Переходы узла: отсортированные символы и соответствующие им узлы
+    private final char[][] keys;
+    private final int[][] targets;
+    private final int[] fail;
+    // Маркеры, заканчивающиеся в узле, включая найденные по суффиксным ссылкам
+    private final int[][] output;
+    private final int[] markerLengths;
+
+    MarkerAutomaton(List<String> markers) {
+        List<StringBuilder> nodeKeys = new ArrayList<>();
+        List<List<Integer>> nodeTargets = new ArrayList<>();
+        List<List<Integer>> nodeMarkers = new ArrayList<>();
+        nodeKeys.add(new StringBuilder());
+        nodeTargets.add(new ArrayList<>());
+        nodeMarkers.add(new ArrayList<>());
+
+        markerLengths = new int[markers.size()];
+        for (int m = 0; m < markers.size(); m++) {
+            String marker = markers.get(m);
+            markerLengths[m] = marker.length();
+
+            int node = 0;
+            for (int i = 0; i < marker.length(); i++) {
+                char c = marker.charAt(i);
+                int index = nodeKeys.get(node).indexOf(String.valueOf(c));
+                if (index >= 0) {
+                    node = nodeTargets.get(node).get(index);
+                } else {
+                    int created = nodeKeys.size();
+                    nodeKeys.add(new StringBuilder());
+                    nodeTargets.add(new ArrayList<>());
+                    nodeMarkers.add(new ArrayList<>());
+                    nodeKeys.get(node).append(c);
+                    nodeTargets.get(node).add(created);
+                    node = created;
+                }
+            }
+            nodeMarkers.get(node).add(m);
+        }
+
+        int size = nodeKeys.size();
+        keys = new char[size][];
+        targets = new int[size][];
+        for (int node = 0; node < size; node++) {
+            char[] nodeChars = nodeKeys.get(node).toString().toCharArray();
+            Integer[] order = new Integer[nodeChars.length];
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Character.compare(nodeChars[a], nodeChars[b]));
+
+            keys[node] = new char[nodeChars.length];
+            targets[node] = new int[nodeChars.length];
+            for (int i = 0; i < order.length; i++) {
+                keys[node][i] = nodeChars[order[i]];
+                targets[node][i] = nodeTargets.get(node).get(order[i]);
+            }
+        }
+
+        fail = new int[size];
+        output = new int[size][];
+        output[0] = NO_MARKERS;
+
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : targets[0]) {
+            fail[child] = 0;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+
+            int[] own = nodeMarkers.get(node).stream().mapToInt(Integer::intValue).toArray();
+            int[] inherited = node == 0 ? NO_MARKERS : output[fail[node]];
+            int[] all = Arrays.copyOf(own, own.length + inherited.length);
+            System.arraycopy(inherited, 0, all, own.length, inherited.length);
+            output[node] = all.length == 0 ? NO_MARKERS : all;
+
+            for (int i = 0; i < keys[node].length; i++) {
+                int child = targets[node][i];
+                int state = fail[node];
+                int next = child(state, keys[node][i]);
+                while (next < 0 && state != 0) {
+                    state = fail[state];
+                    next = child(state, keys[node][i]);
+                }
+                fail[child] = next >= 0 ? next : 0;
+                queue.add(child);
+            }
+        }
+    }
+
+    static int initialState() {
+        return 0;
+    }
+
+    /**
+     * Переход автомата по символу
+     */
+    int step(int state, char c) {
+        int next = child(state, c);
+        while (next < 0 && state != 0) {
+            state = fail[state];
+            next = child(state, c);
+        }
+        return next >= 0 ? next : 0;
+    }
+
+    /**
+     * Номера маркеров, которые заканчиваются в данном состоянии
+     */
+    int[] matches(int state) {
+        return output[state];
+    }
+
+    int markerLength(int marker) {
+        return markerLengths[marker];
+    }
+
+    private int child(int node, char c) {
+        int index = Arrays.binarySearch(keys[node], c);
+        return index >= 0 ? targets[node][index] : -1;
+    }
+}
@@ -0,0 +1,191 @@
+package processors;
+
+import entity.*;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Обработчик удаления подстрок для нескольких пар ограничителей сразу.
+ * Для каждой пары, как и SubstringRemovalProcessor, удаляется самая длинная
+ * подстрока open...close; все маркеры ищутся одним проходом автомата Ахо-Корасик,
+ * поэтому стоимость не растет с числом пар. Пересекающиеся подстроки разных пар
+ * удаляются объединением
+ */
+public class MultiDelimiterRemovalProcessor extends TextProcessor {
+    private static final Logger logger = LogManager.getLogger(MultiDelimiterRemovalProcessor.class);
+
+    private static final int[] NO_PAIRS = new int[0];
+
+    private final List<DelimiterPair> pairs;
+    private final MarkerAutomaton automaton;
+    // Для каждого маркера - пары, которые он открывает и закрывает
+    private final int[][] opens;
+    private final int[][] closes;
+
+    public MultiDelimiterRemovalProcessor(List<DelimiterPair> pairs) {
+        if (pairs == null || pairs.isEmpty()) {
+            throw new IllegalArgumentException("Нужна хотя бы одна пара ограничителей");
+        }
+        this.pairs = List.copyOf(pairs);
+
+        Map<String, Integer> markerIndex = new LinkedHashMap<>();
+        for (DelimiterPair pair : this.pairs) {
+            markerIndex.putIfAbsent(pair.getOpen(), markerIndex.size());
+            markerIndex.putIfAbsent(pair.getClose(), markerIndex.size());
+        }
+
+        List<List<Integer>> openLists = new ArrayList<>();
+        List<List<Integer>> closeLists = new ArrayList<>();
+        for (int m = 0; m < markerIndex.size(); m++) {
+            openLists.add(new ArrayList<>());
+            closeLists.add(new ArrayList<>());
+        }
+        for (int p = 0; p < this.pairs.size(); p++) {
+            openLists.get(markerIndex.get(this.pairs.get(p).getOpen())).add(p);
+            closeLists.get(markerIndex.get(this.pairs.get(p).getClose())).add(p);
+        }
+
+        opens = toArrays(openLists);
+        closes = toArrays(closeLists);
+        automaton = new MarkerAutomaton(new ArrayList<>(markerIndex.keySet()));
+
+        logger.debug("Создан MultiDelimiterRemovalProcessor для пар: {}", this.pairs);
+    }
+
+    public MultiDelimiterRemovalProcessor(DelimiterPair... pairs) {
+        this(Arrays.asList(pairs));
+    }
+
+    public List<DelimiterPair> getPairs() {
+        return pairs;
+    }
+
+    @Override
+    public Set<NodeKind> getHandledNodes() {
+        return EnumSet.of(NodeKind.SENTENCE);
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public void process(CompositeTool composite) {
+        if (composite.getType() == CompositeTool.CompositeType.SENTENCE) {
+            String sentenceText = composite.getText();
+            if (logger.isDebugEnabled()) {
+                logger.debug("Обработка предложения: {}", sentenceText);
+            }
+
+            String processedText = removeSpans(sentenceText);
+            if (processedText != null) {
+                if (logger.isInfoEnabled()) {
+                    logger.info("Удалены подстроки из предложения. Было: '{}', стало: '{}'",
+                            sentenceText, processedText);
+                }
+                SentenceRebuilder.rebuild(composite, processedText);
+            } else {
+                logger.trace("Изменений в предложении не требуется");
+            }
+        }
+
+        TextProcessor next = getNextProcessor();
+        if (next != null) {
+            next.process(composite);
+        }
+    }
+
+    /**
+     * Возвращает текст без найденных подстрок или null, если удалять нечего
+     */
+    String removeSpans(String text) {
+        int pairCount = pairs.size();
+        int[] openStart = new int[pairCount];
+        int[] openEnd = new int[pairCount];
+        int[] bestStart = new int[pairCount];
+        int[] bestEnd = new int[pairCount];
+        Arrays.fill(openStart, -1);
+        Arrays.fill(bestStart, -1);
+        boolean found = false;
+
+        int state = MarkerAutomaton.initialState();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (SubstringRemovalProcessor.isLineTerminator(c)) {
+                Arrays.fill(openStart, -1);
+            }
+
+            state = automaton.step(state, c);
+            for (int marker : automaton.matches(state)) {
+                int start = i + 1 - automaton.markerLength(marker);
+
+                for (int p : closes[marker]) {
+                    if (openStart[p] >= 0 && start >= openEnd[p]) {
+                        if (i + 1 - openStart[p] > bestEnd[p] - bestStart[p]) {
+                            bestStart[p] = openStart[p];
+                            bestEnd[p] = i + 1;
+                            found = true;
+                        }
+                        openStart[p] = -2;
+                    }
+                }
+                for (int p : opens[marker]) {
+                    if (openStart[p] == -1) {
+                        openStart[p] = start;
+                        openEnd[p] = i + 1;
+                    }
+                }
+                // Маркер, только что закрывший пару, не может тут же открыть ее снова
+                for (int p : closes[marker]) {
+                    if (openStart[p] == -2) {
+                        openStart[p] = -1;
+                    }
+                }
+            }
+        }
+
+        if (!found) {
+            return null;
+        }
+
+        long[] spans = new long[pairCount];
+        int spanCount = 0;
+        for (int p = 0; p < pairCount; p++) {
+            if (bestStart[p] >= 0) {
+                spans[spanCount++] = (long) bestStart[p] << 32 | bestEnd[p];
+            }
+        }
+        Arrays.sort(spans, 0, spanCount);
+
+        StringBuilder result = new StringBuilder(text.length());
+        int copied = 0;
+        for (int s = 0; s < spanCount; s++) {
+            int start = (int) (spans[s] >>> 32);
+            int end = (int) spans[s];
+            if (start > copied) {
+                result.append(text, copied, start);
+            }
+            copied = Math.max(copied, end);
+        }
+        result.append(text, copied, text.length());
+        return result.toString();
+    }
+
+    private static int[][] toArrays(List<List<Integer>> lists) {
+        int[][] result = new int[lists.size()][];
+        for (int i = 0; i < lists.size(); i++) {
+            List<Integer> list = lists.get(i);
+            result[i] = list.isEmpty() ? NO_PAIRS : list.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,39 @@
+package processors;
+
+import entity.CompositeTool;
+
+/**
+ * Виды узлов дерева, которые может обрабатывать процессор
+ */
+public enum NodeKind {
+    DOCUMENT(0), PARAGRAPH(1), SENTENCE(2), WORD(3), LEXEME(3), CHARACTER(4), PUNCTUATION(4);
+
+    private final int depth;
+
+    NodeKind(int depth) {
+        this.depth = depth;
+    }
+
+    /**
+     * Глубина узлов этого вида в дереве документа
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public static NodeKind of(CompositeTool.CompositeType type) {
+        switch (type) {
+            case DOCUMENT:
+                return DOCUMENT;
+            case PARAGRAPH:
+                return PARAGRAPH;
+            case SENTENCE:
+                return SENTENCE;
+            case WORD:
+                return WORD;
+            case LEXEME:
+            default:
+                return LEXEME;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package processors;
+
+import entity.*;
+import metrics.ProcessingMetrics;
+import metrics.StageMetrics;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Скомпилированная цепочка процессоров: вместо передачи каждого узла по звеньям
+ * цепочки выполняет один обход дерева и для каждого узла вызывает только те этапы,
+ * которые объявили его вид в getHandledNodes. Обход не спускается ниже самого
+ * глубокого нужного этапам уровня.
+ * Этапы остаются обычными TextProcessor; связь setNext между ними снимается,
+ * порядок вызова задает конвейер, поэтому этапы не должны рассчитывать на то,
+ * что next получит подмененный узел.
+ * Если при сборке указаны ProcessingMetrics, каждый вызов этапа замеряется
+ * и учитывается в счетчиках этапа; без метрик обход не выполняет лишней работы.
+ * run(Component, ForkJoinPool) обрабатывает абзацы документа параллельно:
+ * потокобезопасные этапы (isThreadSafe) используются всеми задачами совместно,
+ * этапы из addPerTask создаются заново для каждой задачи
+ */
+public class ProcessorPipeline extends TextProcessor {
+    private static final Logger logger = LogManager.getLogger(ProcessorPipeline.class);
+
+    private static final TextProcessor[] NO_STAGES = new TextProcessor[0];
+
+    /**
+     * Минимальное число предложений в абзацах одной параллельной задачи
+     */
+    private static final int MIN_TASK_SENTENCES = 256;
+
+    private final List<TextProcessor> stages;
+    private final List<Supplier<? extends TextProcessor>> factories;
+    private final ProcessingMetrics metrics;
+    private final boolean parallelizable;
+    private final TextProcessor[][] stagesByKind;
+    private final StageMetrics[][] metricsByKind;
+    private final Set<NodeKind> handledNodes;
+    private final int maxDepth;
+
+    private ProcessorPipeline(List<TextProcessor> stages, List<Supplier<? extends TextProcessor>> factories,
+                              ProcessingMetrics metrics) {
+        this.stages = Collections.unmodifiableList(stages);
+        this.factories = factories;
+        this.metrics = metrics;
+        this.stagesByKind = new TextProcessor[NodeKind.values().length][];
+        this.metricsByKind = metrics != null ? new StageMetrics[NodeKind.values().length][] : null;
+        this.handledNodes = EnumSet.noneOf(NodeKind.class);
+
+        StageMetrics[] stageMetrics = new StageMetrics[stages.size()];
+        for (int i = 0; metrics != null && i < stages.size(); i++) {
+            stageMetrics[i] = metrics.stage(i + ":" + stages.get(i).getClass().getSimpleName());
+        }
+
+        int depth = -1;
+        for (NodeKind kind : NodeKind.values()) {
+            List<TextProcessor> forKind = new ArrayList<>();
+            List<StageMetrics> metricsForKind = new ArrayList<>();
+            for (int i = 0; i < stages.size(); i++) {
+                if (stages.get(i).getHandledNodes().contains(kind)) {
+                    forKind.add(stages.get(i));
+                    metricsForKind.add(stageMetrics[i]);
+                }
+            }
+            stagesByKind[kind.ordinal()] = forKind.isEmpty() ? NO_STAGES : forKind.toArray(NO_STAGES);
+            if (metrics != null) {
+                metricsByKind[kind.ordinal()] = metricsForKind.toArray(new StageMetrics[0]);
+            }
+            if (!forKind.isEmpty()) {
+                handledNodes.add(kind);
+                depth = Math.max(depth, kind.getDepth());
+            }
+        }
+        this.maxDepth = depth;
+
+        boolean parallel = true;
+        for (int i = 0; i < stages.size(); i++) {
+            parallel &= stages.get(i).isThreadSafe() || factories.get(i) != null;
+        }
+        this.parallelizable = parallel;
+
+        logger.debug("Собран конвейер из {} этапов, обрабатываемые узлы: {}", stages.size(), handledNodes);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public List<TextProcessor> getStages() {
+        return stages;
+    }
+
+    @Override
+    public Set<NodeKind> getHandledNodes() {
+        return EnumSet.copyOf(handledNodes);
+    }
+
+    /**
+     * Конвейер потокобезопасен, если потокобезопасны все его этапы
+     */
+    @Override
+    public boolean isThreadSafe() {
+        for (TextProcessor stage : stages) {
+            if (!stage.isThreadSafe()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Можно ли обрабатывать абзацы параллельно: каждый этап либо потокобезопасен,
+     * либо создается для задачи заново
+     */
+    public boolean isParallelizable() {
+        return parallelizable;
+    }
+
+    /**
+     * Обрабатывает дерево одним обходом с отсечением ненужных уровней
+     */
+    public void run(Component root) {
+        if (root instanceof CompositeTool) {
+            traverse(root, new ComponentCursor());
+        } else {
+            root.process(this);
+        }
+    }
+
+    /**
+     * Обрабатывает документ, распределяя его абзацы по задачам пула. Этапы уровня
+     * документа выполняются в вызывающем потоке до абзацев, как и при обычном обходе.
+     * Абзацы не должны зависеть друг от друга: этап видит только свой абзац.
+     * Если pool == null или какой-то этап нельзя вызывать из нескольких потоков
+     * (см. isParallelizable), документ обрабатывается последовательно.
+     * Пока работают задачи, изменения абзацев сбрасывают кэш только до абзаца;
+     * кэш документа сбрасывается один раз в вызывающем потоке после их завершения
+     */
+    public void run(Component root, ForkJoinPool pool) {
+        if (pool == null || !(root instanceof CompositeTool document) || document.childCount() < 2) {
+            run(root);
+            return;
+        }
+        if (!parallelizable) {
+            logger.warn("Конвейер содержит этапы с общим состоянием, обработка выполняется последовательно");
+            run(root);
+            return;
+        }
+
+        NodeKind kind = NodeKind.of(document.getType());
+        runStages(kind, document);
+        if (maxDepth <= kind.getDepth()) {
+            return;
+        }
+
+        // Дети снимаются заранее: этапы абзацев не меняют состав документа
+        Component[] children = document.children().toArray(new Component[0]);
+        int[] weights = new int[children.length + 1];
+        for (int i = 0; i < children.length; i++) {
+            weights[i + 1] = weights[i] + (children[i] instanceof CompositeTool composite
+                    ? composite.childCount() : 1);
+        }
+        logger.debug("Параллельная обработка: абзацев {}, параллелизм пула {}",
+                children.length, pool.getParallelism());
+        document.holdInvalidation();
+        try {
+            pool.invoke(new ChildrenTask(children, weights, 0, children.length));
+        } finally {
+            document.releaseInvalidation();
+        }
+    }
+
+    /**
+     * Конвейер для одной параллельной задачи: этапы из addPerTask создаются заново,
+     * остальные используются совместно. Без таких этапов возвращает сам конвейер
+     */
+    private ProcessorPipeline forTask() {
+        List<TextProcessor> taskStages = null;
+        for (int i = 0; i < stages.size(); i++) {
+            Supplier<? extends TextProcessor> factory = factories.get(i);
+            if (factory != null) {
+                if (taskStages == null) {
+                    taskStages = new ArrayList<>(stages);
+                }
+                taskStages.set(i, factory.get());
+            }
+        }
+        return taskStages == null ? this : new ProcessorPipeline(taskStages, factories, metrics);
+    }
+
+    /**
+     * Обходит поддерево root курсором без рекурсии; дети узла читаются
+     * после выполнения его этапов
+     */
+    private void traverse(Component root, ComponentCursor cursor) {
+        cursor.reset(root);
+        while (cursor.next()) {
+            Component node = cursor.current();
+            if (node instanceof CompositeTool composite) {
+                NodeKind kind = NodeKind.of(composite.getType());
+                runStages(kind, composite);
+                if (maxDepth <= kind.getDepth()) {
+                    cursor.skipChildren();
+                }
+            } else if (node instanceof CharacterLeaf character) {
+                runStages(NodeKind.CHARACTER, character);
+            } else if (node instanceof PunctuationLeaf punctuation) {
+                runStages(NodeKind.PUNCTUATION, punctuation);
+            } else {
+                node.process(this);
+            }
+        }
+    }
+
+    @Override
+    public void process(CompositeTool composite) {
+        runStages(NodeKind.of(composite.getType()), composite);
+        super.process(composite);
+    }
+
+    @Override
+    public void process(CharacterLeaf character) {
+        runStages(NodeKind.CHARACTER, character);
+        super.process(character);
+    }
+
+    @Override
+    public void process(PunctuationLeaf punctuation) {
+        runStages(NodeKind.PUNCTUATION, punctuation);
+        super.process(punctuation);
+    }
+
+    private void runStages(NodeKind kind, CompositeTool composite) {
+        TextProcessor[] forKind = stagesByKind[kind.ordinal()];
+        if (metricsByKind == null) {
+            for (TextProcessor stage : forKind) {
+                stage.process(composite);
+            }
+            return;
+        }
+
+        StageMetrics[] metrics = metricsByKind[kind.ordinal()];
+        for (int i = 0; i < forKind.length; i++) {
+            // Длина кэшируется и у непостроенных узлов считается без сборки текста;
+            // после этапа она пересчитывается только при изменении узла
+            int modifications = composite.getModificationCount();
+            int length = composite.textLength();
+            long allocation = metrics[i].startAllocationSample();
+            long start = System.nanoTime();
+
+            forKind[i].process(composite);
+
+            metrics[i].record(kind, System.nanoTime() - start, allocation);
+            if (composite.getModificationCount() != modifications) {
+                metrics[i].recordModification(kind, length - composite.textLength());
+            }
+        }
+    }
+
+    /**
+     * Лист передается этапам через двойную диспетчеризацию TextLeaf.process
+     */
+    private void runStages(NodeKind kind, TextLeaf leaf) {
+        TextProcessor[] forKind = stagesByKind[kind.ordinal()];
+        if (metricsByKind == null) {
+            for (TextProcessor stage : forKind) {
+                leaf.process(stage);
+            }
+            return;
+        }
+
+        StageMetrics[] metrics = metricsByKind[kind.ordinal()];
+        for (int i = 0; i < forKind.length; i++) {
+            long allocation = metrics[i].startAllocationSample();
+            long start = System.nanoTime();
+            leaf.process(forKind[i]);
+            metrics[i].record(kind, System.nanoTime() - start, allocation);
+        }
+    }
+
+    /**
+     * Задача обработки детей документа с индексами [from, to)
+     */
+    private class ChildrenTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        // Задачи не сериализуются; поле помечено transient, чтобы не объявлять его сериализуемым
+        private final transient Component[] children;
+        private final int[] weights;
+        private final int from;
+        private final int to;
+
+        ChildrenTask(Component[] children, int[] weights, int from, int to) {
+            this.children = children;
+            this.weights = weights;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1 || weights[to] - weights[from] < MIN_TASK_SENTENCES) {
+                ProcessorPipeline pipeline = forTask();
+                ComponentCursor cursor = new ComponentCursor();
+                for (int i = from; i < to; i++) {
+                    pipeline.traverse(children[i], cursor);
+                }
+                return;
+            }
+
+            int middle = (from + to) >>> 1;
+            invokeAll(new ChildrenTask(children, weights, from, middle),
+                    new ChildrenTask(children, weights, middle, to));
+        }
+    }
+
+    /**
+     * Собирает конвейер из этапов в порядке добавления
+     */
+    public static class Builder {
+        private final List<TextProcessor> stages = new ArrayList<>();
+        private final List<Supplier<? extends TextProcessor>> factories = new ArrayList<>();
+        private ProcessingMetrics metrics;
+
+        public Builder add(TextProcessor stage) {
+            stages.add(stage);
+            factories.add(null);
+            return this;
+        }
+
+        /**
+         * Добавляет этап с собственным состоянием: при последовательном обходе
+         * используется один экземпляр, при параллельном каждая задача получает новый
+         */
+        public Builder addPerTask(Supplier<? extends TextProcessor> factory) {
+            stages.add(factory.get());
+            factories.add(factory);
+            return this;
+        }
+
+        /**
+         * Включает замеры этапов; счетчики именуются "номер:класс этапа"
+         */
+        public Builder metrics(ProcessingMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        public ProcessorPipeline build() {
+            for (TextProcessor stage : stages) {
+                stage.setNext(null);
+            }
+            return new ProcessorPipeline(new ArrayList<>(stages), new ArrayList<>(factories), metrics);
+        }
+    }
+}
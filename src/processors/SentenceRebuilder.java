@@ -0,0 +1,45 @@
+package processors;
+
+import entity.CompositeTool;
+import entity.LeafFactory;
+
+/**
+ * Перестраивает предложение из нового текста: слова разделяются пробельными символами
+ */
+final class SentenceRebuilder {
+
+    private SentenceRebuilder() {
+    }
+
+    static void rebuild(CompositeTool sentence, CharSequence text) {
+        sentence.clear();
+
+        CompositeTool word = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (isWhitespace(c)) {
+                if (word != null) {
+                    sentence.add(word);
+                    word = null;
+                }
+                continue;
+            }
+
+            if (word == null) {
+                word = new CompositeTool("word_" + sentence.childCount(), CompositeTool.CompositeType.WORD);
+            }
+            word.add(LeafFactory.leaf(c));
+        }
+
+        if (word != null) {
+            sentence.add(word);
+        }
+    }
+
+    /**
+     * Пробельные символы в смысле регулярного выражения \s
+     */
+    static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\t' || c == '\r' || c == '\f' || c == '\u000B';
+    }
+}
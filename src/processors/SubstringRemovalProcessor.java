@@ -3,37 +3,59 @@ package processors;
 import entity.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import java.util.regex.*;
+
+import java.util.EnumSet;
+import java.util.Set;
 
 /**
  * Обработчик удаления подстрок
  */
 public class SubstringRemovalProcessor extends TextProcessor {
     private static final Logger logger = LogManager.getLogger(SubstringRemovalProcessor.class);
+
+    private static final int UNSUPPORTED = -1;
+
     private final char startChar;
     private final char endChar;
+    private final boolean inPlace;
 
     public SubstringRemovalProcessor(char startChar, char endChar) {
+        this(startChar, endChar, true);
+    }
+
+    /**
+     * @param inPlace искать и удалять подстроку прямо в листьях предложения,
+     *                без сборки его текста и перестройки слов
+     */
+    public SubstringRemovalProcessor(char startChar, char endChar, boolean inPlace) {
         this.startChar = startChar;
         this.endChar = endChar;
-        logger.debug("Создан SubstringRemovalProcessor для символов: '{}' и '{}'",
-                startChar, endChar);
+        // Пробел в тексте предложения - это разделитель слов, которого нет среди листьев
+        this.inPlace = inPlace && startChar != ' ' && endChar != ' ';
+        logger.debug("Создан SubstringRemovalProcessor для символов: '{}' и '{}', режим на месте: {}",
+                startChar, endChar, this.inPlace);
     }
 
     @Override
-    public void process(CompositeTool composite) {
-        if (composite.getType() == CompositeTool.CompositeType.SENTENCE) {
-            String sentenceText = composite.getText();
-            logger.debug("Обработка предложения: {}", sentenceText);
+    public Set<NodeKind> getHandledNodes() {
+        return EnumSet.of(NodeKind.SENTENCE);
+    }
 
-            String processedText = removeMaxSubstring(sentenceText, startChar, endChar);
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
 
-            if (!sentenceText.equals(processedText)) {
-                logger.info("Удалена подстрока из предложения. Было: '{}', стало: '{}'",
-                        sentenceText, processedText);
+    @Override
+    public void process(CompositeTool composite) {
+        if (composite.getType() == CompositeTool.CompositeType.SENTENCE) {
+            // У непостроенного предложения поиск по тексту не строит слова, если удалять нечего
+            int removed = inPlace && composite.isMaterialized() ? removeInPlace(composite) : UNSUPPORTED;
+            if (removed == UNSUPPORTED) {
+                removed = removeFromText(composite);
+            }
 
-                rebuildSentence(composite, processedText);
-            } else {
+            if (removed == 0) {
                 logger.trace("Изменений в предложении не требуется");
             }
         }
@@ -44,52 +66,147 @@ public class SubstringRemovalProcessor extends TextProcessor {
         }
     }
 
-    private String removeMaxSubstring(String text, char start, char end) {
-        String startStr = String.valueOf(start);
-        String endStr = String.valueOf(end);
+    /**
+     * Находит самую длинную подстроку startChar...endChar за один проход
+     * (при равной длине - первую) и возвращает ее границы в виде (start << 32 | end),
+     * end не включается. Если подстроки нет, возвращает -1
+     */
+    long findMaxSpan(CharSequence text) {
+        int open = -1;
+        int bestStart = -1;
+        int bestEnd = -1;
+
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (open >= 0 && c == endChar) {
+                if (i + 1 - open > bestEnd - bestStart) {
+                    bestStart = open;
+                    bestEnd = i + 1;
+                }
+                open = -1;
+            } else if (open >= 0 && isLineTerminator(c)) {
+                open = -1;
+            } else if (open < 0 && c == startChar) {
+                open = i;
+            }
+        }
 
-        String patternStr = Pattern.quote(startStr) + ".*?" + Pattern.quote(endStr);
-        Pattern pattern = Pattern.compile(patternStr);
-        Matcher matcher = pattern.matcher(text);
+        return bestStart < 0 ? -1 : (long) bestStart << 32 | bestEnd;
+    }
 
-        String maxSubstring = "";
-        int maxLength = -1;
+    private int removeFromText(CompositeTool sentence) {
+        String sentenceText = sentence.getText();
+        if (logger.isDebugEnabled()) {
+            logger.debug("Обработка предложения: {}", sentenceText);
+        }
 
-        while (matcher.find()) {
-            String found = matcher.group();
-            if (found.length() > maxLength) {
-                maxLength = found.length();
-                maxSubstring = found;
-            }
+        long span = findMaxSpan(sentenceText);
+        if (span < 0) {
+            return 0;
         }
 
-        if (maxLength > 0) {
-            logger.debug("Найдена максимальная подстрока для удаления: '{}'", maxSubstring);
-            return text.replace(maxSubstring, "");
+        int start = (int) (span >>> 32);
+        int end = (int) span;
+        StringBuilder processedText = new StringBuilder(sentenceText.length() - (end - start))
+                .append(sentenceText, 0, start)
+                .append(sentenceText, end, sentenceText.length());
+
+        if (logger.isInfoEnabled()) {
+            logger.info("Удалена подстрока из предложения. Было: '{}', стало: '{}'",
+                    sentenceText, processedText.toString());
         }
 
-        return text;
+        SentenceRebuilder.rebuild(sentence, processedText);
+        return end - start;
     }
 
-    private void rebuildSentence(CompositeTool sentenceComposite, String newText) {
-        logger.debug("Перестройка предложения: {}", newText);
+    /**
+     * Ищет подстроку по листьям слов и удаляет ее, изменяя только затронутые слова.
+     * Результат совпадает с удалением из текста и перестройкой предложения.
+     * Возвращает число удаленных символов или UNSUPPORTED, если предложение
+     * состоит не из слов с листьями
+     */
+    private int removeInPlace(CompositeTool sentence) {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Обработка предложения на месте: {}", sentence);
+        }
 
-        sentenceComposite.clear();
+        int open = -1;
+        int openWord = -1;
+        int openLeaf = -1;
+        int bestLength = 0;
+        int firstWord = -1;
+        int firstLeaf = -1;
+        int lastWord = -1;
+        int lastLeaf = -1;
+
+        int position = 0;
+        for (int w = 0; w < sentence.childCount(); w++) {
+            if (!(sentence.getChild(w) instanceof CompositeTool word)
+                    || word.getType() != CompositeTool.CompositeType.WORD) {
+                return UNSUPPORTED;
+            }
+            if (w > 0) {
+                position++;
+            }
 
-        String[] words = newText.split("\\s+");
-        for (String wordText : words) {
-            if (wordText.isEmpty()) continue;
+            for (int l = 0; l < word.childCount(); l++, position++) {
+                if (!(word.getChild(l) instanceof TextLeaf leaf)) {
+                    return UNSUPPORTED;
+                }
 
-            CompositeTool wordComposite = new CompositeTool("word", CompositeTool.CompositeType.WORD);
-            for (char c : wordText.toCharArray()) {
-                if (Character.isLetterOrDigit(c)) {
-                    wordComposite.add(new CharacterLeaf(c));
-                } else {
-                    wordComposite.add(new PunctuationLeaf(c));
+                char c = leaf.getValue();
+                if (open >= 0 && c == endChar) {
+                    if (position + 1 - open > bestLength) {
+                        bestLength = position + 1 - open;
+                        firstWord = openWord;
+                        firstLeaf = openLeaf;
+                        lastWord = w;
+                        lastLeaf = l;
+                    }
+                    open = -1;
+                } else if (open >= 0 && isLineTerminator(c)) {
+                    open = -1;
+                } else if (open < 0 && c == startChar) {
+                    open = position;
+                    openWord = w;
+                    openLeaf = l;
                 }
             }
-            sentenceComposite.add(wordComposite);
         }
+
+        if (bestLength == 0) {
+            return 0;
+        }
+
+        CompositeTool first = (CompositeTool) sentence.getChild(firstWord);
+        if (firstWord == lastWord) {
+            first.removeRange(firstLeaf, lastLeaf + 1);
+        } else {
+            CompositeTool last = (CompositeTool) sentence.getChild(lastWord);
+            first.removeRange(firstLeaf, first.childCount());
+            for (int l = lastLeaf + 1; l < last.childCount(); l++) {
+                first.add(last.getChild(l));
+            }
+            sentence.removeRange(firstWord + 1, lastWord + 1);
+        }
+
+        if (first.childCount() == 0) {
+            sentence.removeRange(firstWord, firstWord + 1);
+        }
+
+        if (logger.isInfoEnabled()) {
+            logger.info("Удалена подстрока из предложения '{}', удалено символов: {}",
+                    sentence.getName(), bestLength);
+        }
+        return bestLength;
+    }
+
+    /**
+     * Символы, которые не совпадают с '.' в регулярных выражениях
+     */
+    static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
     }
 
     @Override
@@ -103,4 +220,4 @@ public class SubstringRemovalProcessor extends TextProcessor {
         TextProcessor next = getNextProcessor();
         if (next != null) next.process(punctuation);
     }
-}
\ No newline at end of file
+}
@@ -2,6 +2,9 @@ package processors;
 
 import entity.*;
 
+import java.util.EnumSet;
+import java.util.Set;
+
 /**
  * Базовый класс для процессоров (Chain of Responsibility)
  */
@@ -16,6 +19,25 @@ public abstract class TextProcessor {
         return nextProcessor;
     }
 
+    /**
+     * Виды узлов, которые обрабатывает процессор. ProcessorPipeline не вызывает
+     * процессор для остальных узлов и не спускается глубже, чем нужно его этапам
+     */
+    public Set<NodeKind> getHandledNodes() {
+        return EnumSet.allOf(NodeKind.class);
+    }
+
+    /**
+     * Можно ли одному экземпляру обрабатывать разные абзацы одновременно из нескольких
+     * потоков (см. ProcessorPipeline.run(Component, ForkJoinPool)). Этап без изменяемых
+     * полей или с потокобезопасными счетчиками возвращает true. Этап с состоянием
+     * оставляет false и добавляется в конвейер через Builder.addPerTask, тогда
+     * каждая параллельная задача получает собственный экземпляр
+     */
+    public boolean isThreadSafe() {
+        return false;
+    }
+
     public void process(CharacterLeaf character) {
         if (nextProcessor != null) {
             nextProcessor.process(character);
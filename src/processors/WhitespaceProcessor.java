@@ -4,52 +4,139 @@ import entity.*;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
 /**
- * Обработчик пробелов и табуляций
+ * Обработчик пробелов и табуляций: пробельные символы, оставшиеся внутри слов
+ * (табуляция и переводы строк U+0009-U+000D, U+0085, а также символы Character.isSpaceChar,
+ * например U+2003, U+3000 или U+2028), разбивают слово на части, а их серии схлопываются
+ * в один пробел-разделитель предложения. Неразрывные пробелы (U+00A0, U+2007, U+202F)
+ * и разделители информации U+001C-U+001F остаются частью слова.
+ * Работает целиком на уровне предложения и не хранит состояния между вызовами
  */
 public class WhitespaceProcessor extends TextProcessor {
     private static final Logger logger = LogManager.getLogger(WhitespaceProcessor.class);
-    private boolean previousWasWhitespace = false;
 
     @Override
-    public void process(CharacterLeaf character) {
-        char value = character.getValue();
+    public Set<NodeKind> getHandledNodes() {
+        return EnumSet.of(NodeKind.SENTENCE);
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
 
-        if (value == ' ' || value == '\t') {
-            if (!previousWasWhitespace) {
-                logger.debug("Замена табуляции/пробела на одиночный пробел");
-                previousWasWhitespace = true;
+    @Override
+    public void process(CompositeTool composite) {
+        if (composite.getType() == CompositeTool.CompositeType.SENTENCE) {
+            int collapsed = normalize(composite);
+            if (collapsed > 0 && logger.isDebugEnabled()) {
+                logger.debug("Предложение '{}': схлопнуто пробельных серий: {}", composite.getName(), collapsed);
+            }
+        }
+
+        TextProcessor next = getNextProcessor();
+        if (next != null) {
+            next.process(composite);
+        }
+    }
+
+    /**
+     * Разбивает слова предложения по пробельным символам за один проход.
+     * Возвращает число удаленных пробельных серий; если их нет, предложение не изменяется
+     */
+    private int normalize(CompositeTool sentence) {
+        if (!sentence.isMaterialized() && !containsWhitespace(sentence.getText())) {
+            return 0;
+        }
+
+        int firstDirty = -1;
+        for (int w = 0; w < sentence.childCount() && firstDirty < 0; w++) {
+            if (sentence.getChild(w) instanceof CompositeTool word && containsWhitespace(word)) {
+                firstDirty = w;
+            }
+        }
+        if (firstDirty < 0) {
+            return 0;
+        }
 
-                TextProcessor next = getNextProcessor();
-                if (next != null) {
-                    next.process(new CharacterLeaf(' '));
+        List<Component> words = new ArrayList<>(sentence.childCount() + 4);
+        for (int w = 0; w < firstDirty; w++) {
+            words.add(sentence.getChild(w));
+        }
+
+        int runs = 0;
+        for (int w = firstDirty; w < sentence.childCount(); w++) {
+            Component child = sentence.getChild(w);
+            if (!(child instanceof CompositeTool word) || !containsWhitespace(word)) {
+                words.add(child);
+                continue;
+            }
+
+            CompositeTool piece = null;
+            boolean inRun = false;
+            for (int l = 0; l < word.childCount(); l++) {
+                Component leaf = word.getChild(l);
+                if (leaf instanceof TextLeaf textLeaf && isWhitespace(textLeaf.getValue())) {
+                    if (!inRun) {
+                        runs++;
+                        inRun = true;
+                    }
+                    if (piece != null) {
+                        words.add(piece);
+                        piece = null;
+                    }
+                    continue;
+                }
+
+                inRun = false;
+                if (piece == null) {
+                    piece = new CompositeTool("word_" + words.size(), word.getType());
                 }
-            } else {
-                logger.trace("Пропуск лишнего пробела");
+                piece.add(leaf);
+            }
+            if (piece != null) {
+                words.add(piece);
             }
-        } else {
-            previousWasWhitespace = false;
+        }
+
+        sentence.clear();
+        for (Component word : words) {
+            sentence.add(word);
+        }
+        return runs;
+    }
 
-            TextProcessor next = getNextProcessor();
-            if (next != null) {
-                next.process(character);
+    private static boolean containsWhitespace(CompositeTool word) {
+        for (int l = 0; l < word.childCount(); l++) {
+            if (word.getChild(l) instanceof TextLeaf leaf && isWhitespace(leaf.getValue())) {
+                return true;
             }
         }
+        return false;
     }
 
-    @Override
-    public void process(CompositeTool composite) {
-        TextProcessor next = getNextProcessor();
-        if (next != null) {
-            next.process(composite);
+    /**
+     * Проверка по тексту предложения: пробел в нем - разделитель слов, а не часть слова
+     */
+    private static boolean containsWhitespace(String sentenceText) {
+        for (int i = 0; i < sentenceText.length(); i++) {
+            char c = sentenceText.charAt(i);
+            if (c != ' ' && isWhitespace(c)) {
+                return true;
+            }
         }
+        return false;
     }
 
-    @Override
-    public void process(PunctuationLeaf punctuation) {
-        TextProcessor next = getNextProcessor();
-        if (next != null) {
-            next.process(punctuation);
+    private static boolean isWhitespace(char c) {
+        if (c <= ' ' || c == '\u0085') {
+            return c == ' ' || (c >= '\t' && c <= '\r') || c == '\u0085';
         }
+        return Character.isSpaceChar(c) && c != '\u00A0' && c != '\u2007' && c != '\u202F';
     }
-}
\ No newline at end of file
+}
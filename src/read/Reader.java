@@ -8,6 +8,14 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
 
 public class Reader {
     private static final Logger logger = LogManager.getLogger(Reader.class);
@@ -15,6 +23,139 @@ public class Reader {
     public static String readFile(String filename) throws FileProcessingException {
         logger.debug("Попытка чтения файла: {}", filename);
 
+        File file = checkReadable(filename);
+
+        StringBuilder content = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                content.append(line).append("\n");
+            }
+            logger.info("Файл успешно прочитан: {}, размер: {} символов",
+                    filename, content.length());
+        } catch (IOException e) {
+            logger.error("Ошибка при чтении файла: {}", filename, e);
+            throw new FileProcessingException("Ошибка при чтении файла: " + filename, e);
+        }
+
+        return content.toString();
+    }
+
+    /**
+     * Читает файл целиком в указанной кодировке. Концы строк "\r\n" и "\n"
+     * приводятся к '\n', как при потоковом чтении (TextSource).
+     * Файл декодируется через Files.readString, без буфера, размер которого задан
+     * числом байтов; строка копируется еще раз, только если в ней есть '\r'
+     * или последняя строка не завершена
+     */
+    public static String readFile(String filename, Charset charset) throws FileProcessingException {
+        logger.debug("Попытка чтения файла: {}, кодировка: {}", filename, charset);
+
+        File file = checkReadable(filename);
+
+        String content;
+        try {
+            content = normalizeLineEnds(Files.readString(file.toPath(), charset));
+            logger.info("Файл успешно прочитан: {}, размер: {} символов",
+                    filename, content.length());
+        } catch (CharacterCodingException e) {
+            logger.error("Файл не соответствует кодировке {}: {}", charset, filename, e);
+            throw new FileProcessingException("Файл не соответствует кодировке " + charset + ": " + filename, e);
+        } catch (IOException e) {
+            logger.error("Ошибка при чтении файла: {}", filename, e);
+            throw new FileProcessingException("Ошибка при чтении файла: " + filename, e);
+        }
+
+        return content;
+    }
+
+    /**
+     * Убирает '\r' перед '\n', заменяет '\r' в конце текста на '\n' и завершает
+     * последнюю строку '\n', как при построчном чтении TextSource.readLine
+     */
+    private static String normalizeLineEnds(String text) {
+        if (text.isEmpty()) {
+            return text;
+        }
+        int carriageReturn = text.indexOf('\r');
+        if (carriageReturn < 0) {
+            return text.charAt(text.length() - 1) == '\n' ? text : text + '\n';
+        }
+
+        StringBuilder sb = new StringBuilder(text.length() + 1);
+        int from = 0;
+        for (int i = carriageReturn; i >= 0; i = text.indexOf('\r', i + 1)) {
+            if (i + 1 == text.length()) {
+                // '\r' в конце текста завершает последнюю строку
+                sb.append(text, from, i).append('\n');
+                return sb.toString();
+            }
+            if (text.charAt(i + 1) == '\n') {
+                sb.append(text, from, i);
+                from = i + 1;
+            }
+        }
+        sb.append(text, from, text.length());
+        if (sb.charAt(sb.length() - 1) != '\n') {
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Отображает файл в память и декодирует его целиком в CharBuffer в куче.
+     * Отображение избавляет только от построчного копирования и итоговой строки
+     * readFile; весь текст по-прежнему держится в памяти (2 байта на символ),
+     * поэтому размер файла ограничен. Для ввода, который не помещается в память, -
+     * openFile и ParagraphReader. Результат можно передавать парсеру как CharSequence
+     */
+    public static CharSequence mapFile(String filename, Charset charset) throws FileProcessingException {
+        logger.debug("Отображение файла в память: {}, кодировка: {}", filename, charset);
+
+        File file = checkReadable(filename);
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                logger.error("Файл слишком велик для отображения: {}, размер: {} байт", filename, size);
+                throw new FileProcessingException("Файл слишком велик для отображения: " + filename
+                        + ", используйте TextSource");
+            }
+
+            MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            CharBuffer content = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(bytes);
+
+            logger.info("Файл успешно отображен: {}, размер: {} символов", filename, content.length());
+            return content;
+        } catch (CharacterCodingException e) {
+            logger.error("Файл не соответствует кодировке {}: {}", charset, filename, e);
+            throw new FileProcessingException("Файл не соответствует кодировке " + charset + ": " + filename, e);
+        } catch (IOException e) {
+            logger.error("Ошибка при чтении файла: {}", filename, e);
+            throw new FileProcessingException("Ошибка при чтении файла: " + filename, e);
+        }
+    }
+
+    /**
+     * Открывает файл для потокового чтения с ограниченным расходом памяти
+     */
+    public static TextSource openFile(String filename, Charset charset) throws FileProcessingException {
+        logger.debug("Открытие файла для потокового чтения: {}, кодировка: {}", filename, charset);
+
+        File file = checkReadable(filename);
+
+        try {
+            return new TextSource(FileChannel.open(file.toPath(), StandardOpenOption.READ), charset);
+        } catch (IOException e) {
+            logger.error("Ошибка при открытии файла: {}", filename, e);
+            throw new FileProcessingException("Ошибка при открытии файла: " + filename, e);
+        }
+    }
+
+    private static File checkReadable(String filename) throws FileProcessingException {
         if (filename == null || filename.trim().isEmpty()) {
             logger.error("Имя файла не может быть пустым");
             throw new FileProcessingException("Имя файла не может быть пустым");
@@ -31,20 +172,7 @@ public class Reader {
             throw new FileProcessingException("Нет прав на чтение файла: " + filename);
         }
 
-        StringBuilder content = new StringBuilder();
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                content.append(line).append("\n");
-            }
-            logger.info("Файл успешно прочитан: {}, размер: {} символов",
-                    filename, content.length());
-        } catch (IOException e) {
-            logger.error("Ошибка при чтении файла: {}", filename, e);
-            throw new FileProcessingException("Ошибка при чтении файла: " + filename, e);
-        }
-
-        return content.toString();
+        return file;
     }
 
-}
\ No newline at end of file
+}
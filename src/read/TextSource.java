@@ -0,0 +1,153 @@
+package read;
+
+import exception.FileProcessingException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Потоковый источник текста: читает канал блоками фиксированного размера
+ * и декодирует их с явно заданной кодировкой, не держа файл в памяти целиком
+ */
+public class TextSource implements Closeable {
+    private static final Logger logger = LogManager.getLogger(TextSource.class);
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final ReadableByteChannel channel;
+    private final CharsetDecoder decoder;
+    private final ByteBuffer bytes;
+    private final CharBuffer chars;
+    private boolean endOfInput = false;
+    private boolean flushed = false;
+    private long charsRead = 0;
+
+    public TextSource(ReadableByteChannel channel, Charset charset) {
+        this(channel, charset, DEFAULT_BUFFER_SIZE);
+    }
+
+    public TextSource(ReadableByteChannel channel, Charset charset, int bufferSize) {
+        this.channel = channel;
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        this.bytes = ByteBuffer.allocate(bufferSize);
+        this.chars = CharBuffer.allocate(bufferSize);
+        this.bytes.flip();
+        this.chars.flip();
+        logger.debug("Создан TextSource, кодировка: {}, буфер: {} байт", charset, bufferSize);
+    }
+
+    /**
+     * Читает очередную строку в line (без '\n' и завершающего '\r').
+     * Возвращает false, если источник исчерпан
+     */
+    public boolean readLine(StringBuilder line) throws FileProcessingException {
+        line.setLength(0);
+        boolean any = false;
+
+        while (true) {
+            if (!chars.hasRemaining() && !fill()) {
+                break;
+            }
+            any = true;
+
+            int start = chars.position();
+            int limit = chars.limit();
+            int i = start;
+            while (i < limit && chars.get(i) != '\n') {
+                i++;
+            }
+
+            line.append(chars, 0, i - start);
+            if (i < limit) {
+                chars.position(i + 1);
+                charsRead += i + 1 - start;
+                break;
+            }
+            chars.position(limit);
+            charsRead += limit - start;
+        }
+
+        int length = line.length();
+        if (length > 0 && line.charAt(length - 1) == '\r') {
+            line.setLength(length - 1);
+        }
+        return any;
+    }
+
+    /**
+     * Читает символы в target, возвращает их количество или -1 в конце потока
+     */
+    public int read(CharBuffer target) throws FileProcessingException {
+        if (!chars.hasRemaining() && !fill()) {
+            return -1;
+        }
+
+        int count = Math.min(target.remaining(), chars.remaining());
+        int limit = chars.limit();
+        chars.limit(chars.position() + count);
+        target.put(chars);
+        chars.limit(limit);
+        charsRead += count;
+        return count;
+    }
+
+    public long getCharsRead() {
+        return charsRead;
+    }
+
+    /**
+     * Декодирует следующую порцию байтов в символьный буфер
+     */
+    private boolean fill() throws FileProcessingException {
+        chars.clear();
+        try {
+            while (chars.position() == 0) {
+                if (flushed) {
+                    break;
+                }
+
+                if (!endOfInput && bytes.remaining() < 4) {
+                    bytes.compact();
+                    int n = channel.read(bytes);
+                    bytes.flip();
+                    if (n < 0) {
+                        endOfInput = true;
+                    }
+                }
+
+                CoderResult result = decoder.decode(bytes, chars, endOfInput);
+                if (result.isError()) {
+                    result.throwException();
+                }
+
+                if (endOfInput && !bytes.hasRemaining()) {
+                    decoder.flush(chars);
+                    flushed = true;
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Ошибка при потоковом чтении", e);
+            throw new FileProcessingException("Ошибка при потоковом чтении", e);
+        } finally {
+            chars.flip();
+        }
+        return chars.hasRemaining();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        logger.debug("TextSource закрыт, прочитано символов: {}", charsRead);
+    }
+}
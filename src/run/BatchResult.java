@@ -0,0 +1,59 @@
+package run;
+
+/**
+ * Итог пакетной обработки каталога
+ */
+public class BatchResult {
+    private final int filesProcessed;
+    private final int filesFailed;
+    private final long inputChars;
+    private final long outputChars;
+    private final long elapsedNanos;
+
+    public BatchResult(int filesProcessed, int filesFailed, long inputChars, long outputChars, long elapsedNanos) {
+        this.filesProcessed = filesProcessed;
+        this.filesFailed = filesFailed;
+        this.inputChars = inputChars;
+        this.outputChars = outputChars;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public int getFilesProcessed() {
+        return filesProcessed;
+    }
+
+    public int getFilesFailed() {
+        return filesFailed;
+    }
+
+    public long getInputChars() {
+        return inputChars;
+    }
+
+    public long getOutputChars() {
+        return outputChars;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getFilesPerSecond() {
+        return elapsedNanos == 0 ? 0 : filesProcessed / (elapsedNanos / 1e9);
+    }
+
+    /**
+     * Пропускная способность в миллионах входных символов в секунду
+     */
+    public double getMegaCharsPerSecond() {
+        return elapsedNanos == 0 ? 0 : inputChars / 1e6 / (elapsedNanos / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BatchResult{files=%d, failed=%d, inputChars=%d, outputChars=%d, "
+                        + "time=%.3f s, %.1f files/s, %.2f Mchars/s}",
+                filesProcessed, filesFailed, inputChars, outputChars,
+                elapsedNanos / 1e9, getFilesPerSecond(), getMegaCharsPerSecond());
+    }
+}
@@ -0,0 +1,240 @@
+package run;
+
+import com.beust.jcommander.IStringConverter;
+import binary.BinaryFormat;
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
+import com.beust.jcommander.converters.IParameterSplitter;
+import parse.ParagraphReader;
+import processors.DelimiterPair;
+
+import java.util.List;
+
+/**
+ * Параметры неинтерактивного запуска из командной строки
+ */
+public class CommandLineOptions {
+
+    @Parameter(names = {"--input", "-i"}, description = "Входной файл; \"-\" - стандартный ввод (только с --streaming)")
+    private String input = "resources/input.txt";
+
+    @Parameter(names = {"--output", "-o"}, description = "Выходной файл; \"-\" - стандартный вывод")
+    private String output = "resources/output.txt";
+
+    @Parameter(names = "--input-dir", description = "Входной каталог для пакетной обработки")
+    private String inputDir;
+
+    @Parameter(names = "--output-dir", description = "Выходной каталог для пакетной обработки")
+    private String outputDir;
+
+    @Parameter(names = "--glob", description = "Шаблон имен файлов относительно входного каталога")
+    private String glob = "**.txt";
+
+    @Parameter(names = {"--delimiters", "-d"},
+            description = "Пара ограничителей: \"()\" или \"/* */\"; параметр можно повторять",
+            converter = DelimiterPairConverter.class, splitter = NoSplitter.class)
+    private List<DelimiterPair> delimiters;
+
+    @Parameter(names = {"--processors", "-p"},
+            description = "Цепочка обработчиков через запятую: removal, whitespace")
+    private List<String> processors;
+
+    @Parameter(names = "--parallelism",
+            description = "Число потоков: парсинга и обработки абзацев для одного файла, обработчиков абзацев "
+                    + "при --streaming (чтение и запись идут в своих потоках), обработчиков файлов "
+                    + "в пакетном режиме; 0 - последовательная работа и виртуальные потоки для пакета")
+    private int parallelism = 0;
+
+    @Parameter(names = "--streaming",
+            description = "Обрабатывать и записывать текст по одному абзацу, не держа документ в памяти;"
+                    + " каждый абзац держится в памяти целиком (см. --max-paragraph-chars)")
+    private boolean streaming = false;
+
+    @Parameter(names = "--max-paragraph-chars",
+            description = "Наибольшая длина абзаца в символах для --streaming; более длинный абзац"
+                    + " (например, весь текст без красных строк) останавливает обработку с ошибкой")
+    private int maxParagraphChars = ParagraphReader.DEFAULT_MAX_PARAGRAPH_CHARS;
+
+    @Parameter(names = "--lazy",
+            description = "Разбирать предложения и слова абзаца только при обращении к ним обработчиков")
+    private boolean lazy = false;
+
+    @Parameter(names = "--mmap",
+            description = "Читать вход через отображение файла в память; текст все равно декодируется в память целиком")
+    private boolean mmap = false;
+
+    @Parameter(names = "--atomic",
+            description = "Писать во временный файл и атомарно переименовывать его в выходной")
+    private boolean atomic = false;
+
+    @Parameter(names = "--fsync", description = "Сбрасывать выходной файл на диск перед завершением записи")
+    private boolean fsync = false;
+
+    @Parameter(names = "--metrics", description = "Замерять этапы обработки и выводить сводку в лог")
+    private boolean metrics = false;
+
+    @Parameter(names = "--metrics-json", description = "Файл для сводки метрик в формате JSON")
+    private String metricsJson;
+
+    @Parameter(names = "--metrics-csv", description = "Файл для сводки метрик в формате CSV")
+    private String metricsCsv;
+
+    @Parameter(names = "--jmx", description = "Публиковать метрики через JMX MBeans")
+    private boolean jmx = false;
+
+    @Parameter(names = "--production-logging",
+            description = "Асинхронное логирование в файл без пообъектных сообщений (log4j2-production.xml)")
+    private boolean productionLogging = false;
+
+    @Parameter(names = "--save-binary",
+            description = "Сохранить разобранный документ в двоичном формате; такой файл можно подать на --input")
+    private String saveBinary;
+
+    @Parameter(names = "--binary-encoding", description = "Кодировка символов в двоичном файле: UTF_8 или UTF_16")
+    private BinaryFormat.Encoding binaryEncoding = BinaryFormat.Encoding.UTF_16;
+
+    @Parameter(names = "--parse-cache",
+            description = "Число документов в кэше разбора для пакетного режима; 0 - без кэша")
+    private int parseCacheEntries = 0;
+
+    @Parameter(names = "--parse-cache-memory", description = "Предельный объем кэша разбора в мегабайтах")
+    private int parseCacheMemoryMb = 256;
+
+    @Parameter(names = "--charset", description = "Кодировка входных и выходных файлов")
+    private String charset = "UTF-8";
+
+    @Parameter(names = {"--help", "-h"}, help = true, description = "Показать справку")
+    private boolean help = false;
+
+    public String getInput() {
+        return input;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    public String getInputDir() {
+        return inputDir;
+    }
+
+    public String getOutputDir() {
+        return outputDir;
+    }
+
+    public String getGlob() {
+        return glob;
+    }
+
+    public List<DelimiterPair> getDelimiters() {
+        return delimiters == null || delimiters.isEmpty() ? List.of(new DelimiterPair('(', ')')) : delimiters;
+    }
+
+    public List<String> getProcessors() {
+        return processors == null || processors.isEmpty() ? List.of("removal", "whitespace") : processors;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public int getMaxParagraphChars() {
+        return maxParagraphChars;
+    }
+
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    public boolean isMmap() {
+        return mmap;
+    }
+
+    public boolean isAtomic() {
+        return atomic;
+    }
+
+    public boolean isFsync() {
+        return fsync;
+    }
+
+    public boolean isMetricsEnabled() {
+        return metrics || jmx || metricsJson != null || metricsCsv != null;
+    }
+
+    public String getMetricsJson() {
+        return metricsJson;
+    }
+
+    public String getMetricsCsv() {
+        return metricsCsv;
+    }
+
+    public boolean isJmx() {
+        return jmx;
+    }
+
+    public boolean isProductionLogging() {
+        return productionLogging;
+    }
+
+    public String getSaveBinary() {
+        return saveBinary;
+    }
+
+    public BinaryFormat.Encoding getBinaryEncoding() {
+        return binaryEncoding;
+    }
+
+    public int getParseCacheEntries() {
+        return parseCacheEntries;
+    }
+
+    public int getParseCacheMemoryMb() {
+        return parseCacheMemoryMb;
+    }
+
+    public String getCharset() {
+        return charset;
+    }
+
+    public boolean isHelp() {
+        return help;
+    }
+
+    public boolean isBatch() {
+        return inputDir != null || outputDir != null;
+    }
+
+    /**
+     * "()" - пара из двух символов, "/* *&#47;" - открывающий и закрывающий маркеры через пробел
+     */
+    public static class DelimiterPairConverter implements IStringConverter<DelimiterPair> {
+        @Override
+        public DelimiterPair convert(String value) {
+            int space = value.indexOf(' ');
+            if (space > 0 && space < value.length() - 1) {
+                return new DelimiterPair(value.substring(0, space), value.substring(space + 1));
+            }
+            if (value.length() == 2) {
+                return new DelimiterPair(value.charAt(0), value.charAt(1));
+            }
+            throw new ParameterException("Неверная пара ограничителей: '" + value
+                    + "', ожидается \"()\" или \"открывающий закрывающий\"");
+        }
+    }
+
+    /**
+     * Значения ограничителей не делятся по запятой: запятая сама может быть ограничителем
+     */
+    public static class NoSplitter implements IParameterSplitter {
+        @Override
+        public List<String> split(String value) {
+            return List.of(value);
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package run;
+
+import entity.CompositeTool;
+import exception.FileProcessingException;
+import exception.ParsingException;
+import exception.TextProcessingException;
+import metrics.ProcessingMetrics;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import parse.ParagraphReader;
+import parse.TextParser;
+import processors.ProcessorPipeline;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Конвейерное выполнение чтения, разбора, обработки и записи: чтение идет в отдельном
+ * потоке, разбор и обработка - в workers потоках, запись - в вызывающем потоке.
+ * Этапы связаны ограниченными очередями пачек абзацев, поэтому быстрый этап ждет
+ * медленный, а в памяти держится не больше нескольких пачек. Пачки нумеруются
+ * при чтении и записываются строго по порядку.
+ * Первая ошибка любого этапа останавливает остальные и пробрасывается из execute
+ */
+public class PipelinedExecutor {
+    private static final Logger logger = LogManager.getLogger(PipelinedExecutor.class);
+    private static final String PARAGRAPH_SEPARATOR = "\n\n";
+
+    /**
+     * Пачка закрывается, когда набирает столько символов или столько абзацев
+     */
+    private static final int CHUNK_CHARS = 64 * 1024;
+    private static final int CHUNK_PARAGRAPHS = 256;
+
+    private static final Chunk END = new Chunk(-1, 0, List.of());
+
+    private final Supplier<ProcessorPipeline> pipelineFactory;
+    private final int workers;
+    private final ProcessingMetrics metrics;
+    private final TextParser parser = new TextParser();
+
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile Thread owner;
+    private long paragraphCount;
+
+    /**
+     * @param pipelineFactory создает конвейер для каждого потока обработки
+     * @param workers         число потоков разбора и обработки
+     * @param metrics         замеры этапов, может быть null
+     */
+    public PipelinedExecutor(Supplier<ProcessorPipeline> pipelineFactory, int workers, ProcessingMetrics metrics) {
+        if (workers <= 0) {
+            throw new IllegalArgumentException("Число потоков обработки должно быть положительным");
+        }
+        this.pipelineFactory = pipelineFactory;
+        this.workers = workers;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Читает абзацы из reader, обрабатывает их и пишет в out в исходном порядке
+     * с теми же разделителями, что у getText документа. Возвращает число записанных символов.
+     * Ошибки чтения и записи приходят как FileProcessingException, ошибки разбора -
+     * как ParsingException, прочие ошибки обработчиков - как TextProcessingException
+     *
+     * @param flushEachChunk сбрасывать вывод после каждой пачки
+     */
+    public long execute(ParagraphReader reader, Appendable out, boolean flushEachChunk)
+            throws TextProcessingException {
+        owner = Thread.currentThread();
+        failure.set(null);
+        paragraphCount = 0;
+
+        BlockingQueue<Chunk> input = new ArrayBlockingQueue<>(2 * workers);
+        BlockingQueue<Chunk> output = new ArrayBlockingQueue<>(2 * workers);
+        ExecutorService executor = Executors.newFixedThreadPool(workers + 1);
+
+        try {
+            // Этапы уровня документа видят пустой документ, как при потоковой обработке
+            pipelineFactory.get().run(new CompositeTool("document", CompositeTool.CompositeType.DOCUMENT));
+
+            executor.execute(() -> read(reader, input));
+            for (int i = 0; i < workers; i++) {
+                executor.execute(() -> process(reader, input, output));
+            }
+            long written = write(out, output, flushEachChunk);
+            logger.debug("Конвейерная обработка завершена: абзацев {}, символов {}", paragraphCount, written);
+            return written;
+
+        } catch (InterruptedException e) {
+            Throwable cause = failure.get();
+            if (cause == null) {
+                Thread.currentThread().interrupt();
+                throw new TextProcessingException("Конвейерная обработка прервана", e);
+            }
+            throw rethrow(cause);
+        } catch (FileProcessingException e) {
+            // Прерывание записи в канал из-за ошибки другого этапа закрывает канал;
+            // причиной остановки считается исходная ошибка
+            Throwable cause = failure.get();
+            throw cause != null ? rethrow(cause) : e;
+        } finally {
+            executor.shutdownNow();
+            awaitTermination(executor);
+            // Флаг прерывания мог быть выставлен потоком, сообщившим об ошибке
+            if (failure.get() != null) {
+                Thread.interrupted();
+            }
+            owner = null;
+        }
+    }
+
+    public long getParagraphCount() {
+        return paragraphCount;
+    }
+
+    private void read(ParagraphReader reader, BlockingQueue<Chunk> input) {
+        try {
+            long sequence = 0;
+            int index = 0;
+            List<String> paragraphs = new ArrayList<>();
+            int chars = 0;
+            long phaseStart = System.nanoTime();
+
+            CharSequence text;
+            while ((text = reader.nextParagraphText()) != null) {
+                paragraphs.add(text.toString());
+                chars += text.length();
+                if (chars >= CHUNK_CHARS || paragraphs.size() >= CHUNK_PARAGRAPHS) {
+                    recordPhase(ProcessingMetrics.Phase.READ, phaseStart);
+                    input.put(new Chunk(sequence++, index, paragraphs));
+                    index += paragraphs.size();
+                    paragraphs = new ArrayList<>();
+                    chars = 0;
+                    phaseStart = System.nanoTime();
+                }
+            }
+            if (!paragraphs.isEmpty()) {
+                recordPhase(ProcessingMetrics.Phase.READ, phaseStart);
+                input.put(new Chunk(sequence, index, paragraphs));
+            }
+            for (int i = 0; i < workers; i++) {
+                input.put(END);
+            }
+        } catch (InterruptedException e) {
+            // Остановка из-за ошибки другого этапа
+        } catch (Throwable e) {
+            // Любая ошибка, включая Error, должна остановить конвейер: иначе запись ждала бы вечно
+            fail(e);
+        }
+    }
+
+    private void process(ParagraphReader reader, BlockingQueue<Chunk> input, BlockingQueue<Chunk> output) {
+        try {
+            ProcessorPipeline pipeline = pipelineFactory.get();
+            while (true) {
+                Chunk chunk = input.take();
+                if (chunk == END) {
+                    output.put(END);
+                    return;
+                }
+
+                List<String> processed = new ArrayList<>(chunk.paragraphs.size());
+                for (int i = 0; i < chunk.paragraphs.size(); i++) {
+                    int index = chunk.firstIndex + i;
+
+                    long phaseStart = System.nanoTime();
+                    CompositeTool paragraph = parser.parseParagraph(chunk.paragraphs.get(i), index,
+                            reader.getStatistics());
+                    recordPhase(ProcessingMetrics.Phase.PARSE, phaseStart);
+
+                    phaseStart = System.nanoTime();
+                    try {
+                        pipeline.run(paragraph);
+                    } catch (RuntimeException e) {
+                        logger.error("Ошибка при обработке абзаца {}", index, e);
+                        throw new TextProcessingException("Ошибка при обработке абзаца " + index, e);
+                    }
+                    processed.add(paragraph.getText());
+                    recordPhase(ProcessingMetrics.Phase.PROCESS, phaseStart);
+                }
+                output.put(new Chunk(chunk.sequence, chunk.firstIndex, processed));
+            }
+        } catch (InterruptedException e) {
+            // Остановка из-за ошибки другого этапа
+        } catch (Throwable e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Принимает обработанные пачки и пишет их по порядку номеров; пачки,
+     * пришедшие раньше своей очереди, ждут в pending
+     */
+    private long write(Appendable out, BlockingQueue<Chunk> output, boolean flushEachChunk)
+            throws InterruptedException, FileProcessingException {
+        Map<Long, Chunk> pending = new HashMap<>();
+        long next = 0;
+        long written = 0;
+        int finished = 0;
+
+        try {
+            while (finished < workers) {
+                Chunk chunk = output.take();
+                if (chunk == END) {
+                    finished++;
+                    continue;
+                }
+                pending.put(chunk.sequence, chunk);
+
+                while ((chunk = pending.remove(next)) != null) {
+                    long phaseStart = System.nanoTime();
+                    for (String paragraph : chunk.paragraphs) {
+                        if (paragraphCount++ > 0) {
+                            out.append(PARAGRAPH_SEPARATOR);
+                            written += PARAGRAPH_SEPARATOR.length();
+                        }
+                        out.append(paragraph);
+                        written += paragraph.length();
+                    }
+                    if (flushEachChunk && out instanceof Flushable flushable) {
+                        flushable.flush();
+                    }
+                    recordPhase(ProcessingMetrics.Phase.WRITE, phaseStart);
+                    next++;
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Ошибка при записи результата", e);
+            throw new FileProcessingException("Ошибка при записи результата", e);
+        }
+
+        if (!pending.isEmpty()) {
+            throw new IllegalStateException("Не записаны пачки абзацев: " + pending.keySet());
+        }
+        return written;
+    }
+
+    private void fail(Throwable e) {
+        if (failure.compareAndSet(null, e)) {
+            Thread thread = owner;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+    }
+
+    private static TextProcessingException rethrow(Throwable cause) {
+        if (cause instanceof TextProcessingException e) {
+            return e;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        logger.error("Непредвиденная ошибка конвейерной обработки", cause);
+        return new TextProcessingException("Непредвиденная ошибка конвейерной обработки", cause);
+    }
+
+    private static void awaitTermination(ExecutorService executor) {
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Потоки конвейерной обработки не завершились вовремя");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void recordPhase(ProcessingMetrics.Phase phase, long startNanos) {
+        if (metrics != null) {
+            metrics.recordPhase(phase, startNanos);
+        }
+    }
+
+    /**
+     * Пачка абзацев: номер по порядку чтения, номер первого абзаца и тексты абзацев
+     */
+    private static class Chunk {
+        private final long sequence;
+        private final int firstIndex;
+        private final List<String> paragraphs;
+
+        Chunk(long sequence, int firstIndex, List<String> paragraphs) {
+            this.sequence = sequence;
+            this.firstIndex = firstIndex;
+            this.paragraphs = paragraphs;
+        }
+    }
+}
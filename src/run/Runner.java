@@ -1,31 +1,100 @@
 package run;
 
+import binary.BinaryReader;
+import binary.BinaryWriter;
+import entity.CompactDocument;
 import entity.Component;
+import entity.CompositeTool;
 import exception.FileProcessingException;
 import exception.ParsingException;
+import exception.TextProcessingException;
+import parse.ParagraphReader;
+import parse.ParseCache;
 import parse.TextParser;
+import processors.DelimiterPair;
+import processors.MultiDelimiterRemovalProcessor;
+import processors.ProcessorPipeline;
 import processors.SubstringRemovalProcessor;
+import processors.TextProcessor;
 import processors.WhitespaceProcessor;
+import metrics.MetricsExporter;
+import metrics.ProcessingMetrics;
 import read.Reader;
+import read.TextSource;
+import statistics.ProcessingStatistics;
+import statistics.StatisticsCollector;
+import write.TextTarget;
 import write.Writer;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.Charset;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Scanner;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
  * Класс для запуска и управления обработкой текста
  */
 public class Runner {
     private static final Logger logger = LogManager.getLogger(Runner.class);
-    private final Scanner scanner;
+    private static final String STANDARD_STREAM = "-";
+    private static final String PARAGRAPH_SEPARATOR = "\n\n";
+    private static final String JMX_DOMAIN = "text.processing";
+    private Scanner scanner;
+    private ProcessingMetrics metrics;
+    private ParseCache parseCache;
+    private String parseCacheConfiguration;
 
     public Runner() {
-        this.scanner = new Scanner(System.in);
         logger.info("Инициализирован Runner");
     }
 
+    /**
+     * Включает замеры чтения, парсинга, обработки, записи и этапов конвейера;
+     * null отключает их
+     */
+    public void setMetrics(ProcessingMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public ProcessingMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Включает кэш разбора и обработки для пакетного режима; null отключает его.
+     *
+     * @param configuration описание обработчиков конвейера, под которым кэшируются
+     *                      обработанные тексты
+     */
+    public void setParseCache(ParseCache parseCache, String configuration) {
+        this.parseCache = parseCache;
+        this.parseCacheConfiguration = configuration;
+    }
+
+    public ParseCache getParseCache() {
+        return parseCache;
+    }
+
     public void processText() {
+        scanner = new Scanner(System.in);
         try {
             logger.info("=== Запуск программы обработки текста ===");
 
@@ -35,20 +104,23 @@ public class Runner {
             printText("Исходный текст из файла:", text);
 
             logger.info("Парсинг текста...");
+            StatisticsCollector originalStatistics = new StatisticsCollector();
             TextParser parser = new TextParser();
-            Component document = parser.parse(text);
+            Component document = parser.parse(text, originalStatistics);
 
             char startChar = getStartChar();
             char endChar = getEndChar();
 
             logger.info("Создание цепочки обработчиков...");
-            SubstringRemovalProcessor removalProcessor = new SubstringRemovalProcessor(startChar, endChar);
-            WhitespaceProcessor whitespaceProcessor = new WhitespaceProcessor();
-
-            removalProcessor.setNext(whitespaceProcessor);
+            StatisticsCollector processedStatistics = new StatisticsCollector();
+            ProcessorPipeline pipeline = ProcessorPipeline.builder()
+                    .add(new SubstringRemovalProcessor(startChar, endChar))
+                    .add(new WhitespaceProcessor())
+                    .add(processedStatistics)
+                    .build();
 
             logger.info("Обработка документа...");
-            document.process(removalProcessor);
+            pipeline.run(document);
 
             String processedText = document.getText();
 
@@ -57,7 +129,10 @@ public class Runner {
             String outputFilename = "resources/output.txt";
             Writer.writeFile(outputFilename, processedText);
 
-            printStatistics(text, processedText, inputFilename, outputFilename);
+            ProcessingStatistics statistics = new ProcessingStatistics(inputFilename, outputFilename,
+                    originalStatistics.snapshot(text.length()), processedStatistics.snapshot(processedText.length()));
+            System.out.println();
+            System.out.println(statistics.format());
 
             logger.info("=== Обработка завершена успешно ===");
 
@@ -70,10 +145,454 @@ public class Runner {
             System.err.println("Произошла непредвиденная ошибка: " + e.getMessage());
         } finally {
             scanner.close();
+            scanner = null;
             logger.info("Runner завершил работу");
         }
     }
 
+    /**
+     * Неинтерактивный запуск по параметрам командной строки: один файл
+     * или, если задан входной/выходной каталог, пакетная обработка каталога
+     */
+    public BatchResult run(CommandLineOptions options) throws TextProcessingException {
+        if (options.isMetricsEnabled()) {
+            metrics = new ProcessingMetrics();
+            if (options.isJmx()) {
+                metrics.registerMBeans(JMX_DOMAIN);
+            }
+        }
+
+        BatchResult result = execute(options);
+
+        if (metrics != null) {
+            logger.info("{}", metrics);
+            if (options.getMetricsJson() != null) {
+                MetricsExporter.writeJson(metrics, options.getMetricsJson());
+            }
+            if (options.getMetricsCsv() != null) {
+                MetricsExporter.writeCsv(metrics, options.getMetricsCsv());
+            }
+        }
+        return result;
+    }
+
+    private BatchResult execute(CommandLineOptions options) throws TextProcessingException {
+        Charset charset = charsetOf(options.getCharset());
+
+        if (options.isBatch()) {
+            if (options.getInputDir() == null || options.getOutputDir() == null) {
+                throw new FileProcessingException("Для пакетного режима нужны --input-dir и --output-dir");
+            }
+            if (options.getParseCacheEntries() > 0) {
+                setParseCache(new ParseCache(new TextParser(), options.getParseCacheEntries(),
+                        options.getParseCacheMemoryMb() * 1024L * 1024L), configurationOf(options));
+                if (options.isJmx()) {
+                    ProcessingMetrics.registerMBean(parseCache, JMX_DOMAIN + ":type=ParseCache");
+                }
+            }
+            BatchResult result = processDirectory(Path.of(options.getInputDir()), options.getGlob(),
+                    Path.of(options.getOutputDir()), charset,
+                    () -> createPipelineBuilder(options).metrics(metrics).build(), options.getParallelism(),
+                    options.isAtomic(), options.isFsync());
+            if (parseCache != null) {
+                logger.info("{}", parseCache);
+            }
+            return result;
+        }
+
+        StatisticsCollector originalStatistics = new StatisticsCollector();
+        StatisticsCollector processedStatistics = new StatisticsCollector();
+        Supplier<ProcessorPipeline> pipelineFactory = () -> createPipelineBuilder(options)
+                .add(processedStatistics)
+                .metrics(metrics)
+                .build();
+
+        if (options.isStreaming()) {
+            return runStreaming(options, charset, pipelineFactory, originalStatistics, processedStatistics);
+        }
+
+        ProcessorPipeline pipeline = pipelineFactory.get();
+
+        ForkJoinPool pool = options.getParallelism() > 0 ? new ForkJoinPool(options.getParallelism()) : null;
+        try {
+            return processSingleFile(options, charset, pipeline, pool, originalStatistics, processedStatistics);
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Обработка одного файла целиком; pool (может быть null) используется
+     * для параллельного разбора и параллельной обработки абзацев
+     */
+    private BatchResult processSingleFile(CommandLineOptions options, Charset charset, ProcessorPipeline pipeline,
+                                          ForkJoinPool pool, StatisticsCollector originalStatistics,
+                                          StatisticsCollector processedStatistics)
+            throws FileProcessingException, ParsingException {
+        logger.info("=== Обработка файла {} -> {} ===", options.getInput(), options.getOutput());
+        long start = System.nanoTime();
+
+        long phaseStart = System.nanoTime();
+        Component document;
+        long inputChars;
+        if (BinaryReader.isBinary(options.getInput())) {
+            // Документ уже разобран: таблицы границ отображаются из файла, дерево строится без разбора
+            CompactDocument compact = BinaryReader.map(options.getInput());
+            recordPhase(ProcessingMetrics.Phase.READ, phaseStart);
+
+            phaseStart = System.nanoTime();
+            document = compact.toComposite();
+            originalStatistics.count(compact);
+            inputChars = compact.textLength();
+            recordPhase(ProcessingMetrics.Phase.PARSE, phaseStart);
+        } else {
+            CharSequence text = options.isMmap()
+                    ? Reader.mapFile(options.getInput(), charset)
+                    : Reader.readFile(options.getInput(), charset);
+            recordPhase(ProcessingMetrics.Phase.READ, phaseStart);
+
+            phaseStart = System.nanoTime();
+            document = options.isLazy()
+                    ? new TextParser().parseLazy(text, originalStatistics)
+                    : new TextParser(pool).parse(text, originalStatistics);
+            inputChars = text.length();
+            recordPhase(ProcessingMetrics.Phase.PARSE, phaseStart);
+        }
+
+        if (options.getSaveBinary() != null) {
+            BinaryWriter.write(options.getSaveBinary(), document, options.getBinaryEncoding(), true, false);
+        }
+
+        phaseStart = System.nanoTime();
+        pipeline.run(document, pool);
+        recordPhase(ProcessingMetrics.Phase.PROCESS, phaseStart);
+
+        phaseStart = System.nanoTime();
+        long outputChars = STANDARD_STREAM.equals(options.getOutput())
+                ? writeToStdout(document::getText, charset)
+                : Writer.writeComponent(options.getOutput(), document, charset, options.isAtomic(), options.isFsync());
+        recordPhase(ProcessingMetrics.Phase.WRITE, phaseStart);
+
+        BatchResult result = new BatchResult(1, 0, inputChars, outputChars, System.nanoTime() - start);
+        logger.info("=== Обработка завершена: {} ===", result);
+        logger.info("{}", new ProcessingStatistics(options.getInput(), options.getOutput(),
+                originalStatistics.snapshot(inputChars), processedStatistics.snapshot(outputChars)));
+        return result;
+    }
+
+    /**
+     * Потоковый режим: вход (файл или стандартный ввод) читается по абзацам,
+     * каждый абзац обрабатывается и сразу записывается. При parallelism > 0
+     * чтение, обработка и запись идут одновременно в разных потоках (PipelinedExecutor)
+     */
+    private BatchResult runStreaming(CommandLineOptions options, Charset charset,
+                                     Supplier<ProcessorPipeline> pipelineFactory,
+                                     StatisticsCollector originalStatistics,
+                                     StatisticsCollector processedStatistics) throws TextProcessingException {
+        boolean fromStdin = STANDARD_STREAM.equals(options.getInput());
+        boolean toStdout = STANDARD_STREAM.equals(options.getOutput());
+        logger.info("=== Потоковая обработка {} -> {} ===",
+                fromStdin ? "stdin" : options.getInput(), toStdout ? "stdout" : options.getOutput());
+
+        TextSource source = fromStdin
+                ? new TextSource(Channels.newChannel(System.in), charset)
+                : Reader.openFile(options.getInput(), charset);
+
+        PipelinedExecutor executor = options.getParallelism() > 0
+                ? new PipelinedExecutor(pipelineFactory, options.getParallelism(), metrics)
+                : null;
+        // Ошибка разбора или обработки из конвейерного режима; запись прерывается
+        // через FileProcessingException, а наружу выходит исходная ошибка
+        TextProcessingException[] stageError = new TextProcessingException[1];
+
+        try (ParagraphReader reader = new ParagraphReader(source, originalStatistics,
+                options.getMaxParagraphChars())) {
+            long start = System.nanoTime();
+            Writer.Content content;
+            if (executor != null) {
+                content = out -> {
+                    try {
+                        executor.execute(reader, out, fromStdin);
+                    } catch (FileProcessingException e) {
+                        throw e;
+                    } catch (TextProcessingException e) {
+                        stageError[0] = e;
+                        throw new FileProcessingException("Конвейерная обработка остановлена", e);
+                    }
+                };
+            } else {
+                ProcessorPipeline pipeline = pipelineFactory.get();
+                content = out -> processStream(reader, out, pipeline, fromStdin);
+            }
+
+            long outputChars;
+            try {
+                outputChars = toStdout
+                        ? writeToStdout(content, charset)
+                        : Writer.writeFile(options.getOutput(), content, charset, options.isAtomic(), options.isFsync());
+            } catch (FileProcessingException e) {
+                throw stageError[0] != null ? stageError[0] : e;
+            }
+
+            BatchResult result = new BatchResult(1, 0, source.getCharsRead(), outputChars,
+                    System.nanoTime() - start);
+            logger.info("=== Потоковая обработка завершена: абзацев {}, {} ===",
+                    executor != null ? executor.getParagraphCount() : reader.getParagraphCount(), result);
+            logger.info("{}", new ProcessingStatistics(options.getInput(), options.getOutput(),
+                    originalStatistics.snapshot(source.getCharsRead()), processedStatistics.snapshot(outputChars)));
+            return result;
+        } catch (IOException e) {
+            logger.error("Ошибка при закрытии входа: {}", options.getInput(), e);
+            throw new FileProcessingException("Ошибка при закрытии входа: " + options.getInput(), e);
+        }
+    }
+
+    /**
+     * Выводит содержимое в stdout через TextTarget. Поток только сбрасывается,
+     * но не закрывается, чтобы им можно было пользоваться дальше
+     */
+    private long writeToStdout(Writer.Content content, Charset charset) throws FileProcessingException {
+        TextTarget out = new TextTarget(Channels.newChannel(System.out), charset);
+        try {
+            content.writeTo(out);
+            out.flush();
+            System.out.flush();
+            return out.getCharsWritten();
+        } catch (IOException e) {
+            logger.error("Ошибка при записи в стандартный вывод", e);
+            throw new FileProcessingException("Ошибка при записи в стандартный вывод", e);
+        }
+    }
+
+    /**
+     * Разбирает, обрабатывает и записывает абзацы по одному; абзацы разделяются
+     * так же, как в getText документа. Возвращает число записанных символов.
+     *
+     * @param flushEachParagraph сбрасывать вывод после каждого абзаца, чтобы результат
+     *                           появлялся до окончания ввода
+     */
+    public long processStream(ParagraphReader reader, Appendable out, ProcessorPipeline pipeline,
+                              boolean flushEachParagraph) throws FileProcessingException, IOException {
+        pipeline.run(new CompositeTool("document", CompositeTool.CompositeType.DOCUMENT));
+
+        long written = 0;
+        while (true) {
+            long phaseStart = System.nanoTime();
+            CompositeTool paragraph = reader.next();
+            recordPhase(ProcessingMetrics.Phase.PARSE, phaseStart);
+            if (paragraph == null) {
+                break;
+            }
+
+            phaseStart = System.nanoTime();
+            pipeline.run(paragraph);
+            recordPhase(ProcessingMetrics.Phase.PROCESS, phaseStart);
+
+            phaseStart = System.nanoTime();
+            if (reader.getParagraphCount() > 1) {
+                out.append(PARAGRAPH_SEPARATOR);
+                written += PARAGRAPH_SEPARATOR.length();
+            }
+            paragraph.getText(out);
+            written += paragraph.textLength();
+
+            if (flushEachParagraph && out instanceof Flushable flushable) {
+                flushable.flush();
+            }
+            recordPhase(ProcessingMetrics.Phase.WRITE, phaseStart);
+        }
+        return written;
+    }
+
+    private void recordPhase(ProcessingMetrics.Phase phase, long startNanos) {
+        if (metrics != null) {
+            metrics.recordPhase(phase, startNanos);
+        }
+    }
+
+    /**
+     * Собирает конвейер из обработчиков, перечисленных в параметрах. Для одной пары
+     * односимвольных ограничителей используется SubstringRemovalProcessor, иначе
+     * MultiDelimiterRemovalProcessor
+     */
+    public static ProcessorPipeline createPipeline(CommandLineOptions options) {
+        return createPipelineBuilder(options).build();
+    }
+
+    private static ProcessorPipeline.Builder createPipelineBuilder(CommandLineOptions options) {
+        ProcessorPipeline.Builder builder = ProcessorPipeline.builder();
+        for (String name : options.getProcessors()) {
+            switch (name.trim().toLowerCase(Locale.ROOT)) {
+                case "removal" -> builder.add(createRemovalProcessor(options.getDelimiters()));
+                case "whitespace" -> builder.add(new WhitespaceProcessor());
+                default -> throw new IllegalArgumentException("Неизвестный обработчик: " + name);
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * Описание обработчиков и ограничителей, однозначно задающее результат конвейера
+     */
+    private static String configurationOf(CommandLineOptions options) {
+        return String.join(",", options.getProcessors()) + "|" + options.getDelimiters();
+    }
+
+    private static TextProcessor createRemovalProcessor(List<DelimiterPair> delimiters) {
+        if (delimiters.size() == 1) {
+            DelimiterPair pair = delimiters.get(0);
+            if (pair.getOpen().length() == 1 && pair.getClose().length() == 1) {
+                return new SubstringRemovalProcessor(pair.getOpen().charAt(0), pair.getClose().charAt(0));
+            }
+        }
+        return new MultiDelimiterRemovalProcessor(delimiters);
+    }
+
+    private static Charset charsetOf(String name) throws FileProcessingException {
+        try {
+            return Charset.forName(name);
+        } catch (IllegalArgumentException e) {
+            throw new FileProcessingException("Неподдерживаемая кодировка: " + name, e);
+        }
+    }
+
+    /**
+     * Пакетная обработка: все файлы каталога inputDir, подходящие под glob
+     * (относительно inputDir), обрабатываются параллельно и записываются в outputDir
+     * с сохранением относительных путей. Каждый файл получает собственный конвейер
+     * из pipelineFactory, поэтому состояние этапов между файлами не разделяется.
+     *
+     * @param charset     кодировка входных и выходных файлов
+     * @param parallelism число потоков; 0 или меньше - виртуальный поток на каждый файл,
+     *                    при этом одновременно обрабатывается не больше файлов, чем процессоров,
+     *                    чтобы в памяти не оказались тексты и деревья всех файлов сразу
+     * @param atomic      записывать каждый файл атомарно, чтобы в выходном каталоге
+     *                    не оставалось недописанных файлов
+     * @param fsync       сбрасывать каждый выходной файл на диск
+     */
+    public BatchResult processDirectory(Path inputDir, String glob, Path outputDir, Charset charset,
+                                        Supplier<ProcessorPipeline> pipelineFactory, int parallelism,
+                                        boolean atomic, boolean fsync) throws FileProcessingException {
+        logger.info("=== Пакетная обработка каталога {} -> {}, шаблон '{}' ===", inputDir, outputDir, glob);
+
+        if (!Files.isDirectory(inputDir)) {
+            logger.error("Входной каталог не существует: {}", inputDir);
+            throw new FileProcessingException("Входной каталог не существует: " + inputDir);
+        }
+
+        List<Path> files = listFiles(inputDir, glob);
+        logger.info("Найдено файлов: {}", files.size());
+
+        long start = System.nanoTime();
+        int processed = 0;
+        int failed = 0;
+        long inputChars = 0;
+        long outputChars = 0;
+
+        TextParser parser = new TextParser();
+        try (ExecutorService executor = parallelism > 0
+                ? Executors.newFixedThreadPool(parallelism)
+                : Executors.newVirtualThreadPerTaskExecutor()) {
+
+            // Фиксированный пул сам ограничивает число файлов в работе; для виртуальных потоков
+            // ограничение задает семафор, иначе все файлы читались бы одновременно
+            Semaphore inFlight = new Semaphore(parallelism > 0
+                    ? parallelism : Runtime.getRuntime().availableProcessors());
+            List<Future<long[]>> futures = new ArrayList<>(files.size());
+            for (Path file : files) {
+                Path target = outputDir.resolve(inputDir.relativize(file).toString());
+                try {
+                    inFlight.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new FileProcessingException("Пакетная обработка прервана", e);
+                }
+                futures.add(executor.submit(() -> {
+                    try {
+                        return processFile(file, target, charset, parser, pipelineFactory.get(), atomic, fsync);
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    long[] sizes = futures.get(i).get();
+                    inputChars += sizes[0];
+                    outputChars += sizes[1];
+                    processed++;
+                } catch (ExecutionException e) {
+                    failed++;
+                    logger.error("Ошибка при обработке файла: {}", files.get(i), e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new FileProcessingException("Пакетная обработка прервана", e);
+                }
+            }
+        }
+
+        BatchResult result = new BatchResult(processed, failed, inputChars, outputChars, System.nanoTime() - start);
+        logger.info("=== Пакетная обработка завершена: {} ===", result);
+        return result;
+    }
+
+    /**
+     * Обрабатывает один файл; возвращает длины исходного и обработанного текста
+     */
+    private long[] processFile(Path input, Path output, Charset charset, TextParser parser,
+                               ProcessorPipeline pipeline, boolean atomic, boolean fsync)
+            throws FileProcessingException, ParsingException, IOException {
+        long phaseStart = System.nanoTime();
+        String text = Reader.readFile(input.toString(), charset);
+        recordPhase(ProcessingMetrics.Phase.READ, phaseStart);
+
+        Path parent = output.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+
+        if (parseCache != null) {
+            // Разбор и обработка при промахе кэша учитываются вместе как обработка
+            phaseStart = System.nanoTime();
+            String processed = parseCache.process(text, parseCacheConfiguration, pipeline);
+            recordPhase(ProcessingMetrics.Phase.PROCESS, phaseStart);
+
+            phaseStart = System.nanoTime();
+            long written = Writer.writeFile(output.toString(), out -> out.append(processed), charset, atomic, fsync);
+            recordPhase(ProcessingMetrics.Phase.WRITE, phaseStart);
+            return new long[]{text.length(), written};
+        }
+
+        phaseStart = System.nanoTime();
+        Component document = parser.parse(text);
+        recordPhase(ProcessingMetrics.Phase.PARSE, phaseStart);
+
+        phaseStart = System.nanoTime();
+        pipeline.run(document);
+        recordPhase(ProcessingMetrics.Phase.PROCESS, phaseStart);
+
+        phaseStart = System.nanoTime();
+        long written = Writer.writeComponent(output.toString(), document, charset, atomic, fsync);
+        recordPhase(ProcessingMetrics.Phase.WRITE, phaseStart);
+        return new long[]{text.length(), written};
+    }
+
+    private List<Path> listFiles(Path inputDir, String glob) throws FileProcessingException {
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        try (Stream<Path> paths = Files.walk(inputDir)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> matcher.matches(inputDir.relativize(path)))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            logger.error("Ошибка при обходе каталога: {}", inputDir, e);
+            throw new FileProcessingException("Ошибка при обходе каталога: " + inputDir, e);
+        }
+    }
+
     /**
      * Получение начального символа для удаления подстроки
      */
@@ -113,57 +632,4 @@ public class Runner {
         System.out.println(text);
         System.out.println("=".repeat(60));
     }
-
-    /**
-     * Вывод статистики обработки
-     */
-    private void printStatistics(String originalText, String processedText, String inputFile, String outputFile) {
-        System.out.println("\n=== Статистика обработки ===");
-        System.out.printf("Входной файл: %s%n", inputFile);
-        System.out.printf("Выходной файл: %s%n", outputFile);
-        System.out.printf("Длина исходного текста: %d символов%n", originalText.length());
-        System.out.printf("Длина обработанного текста: %d символов%n", processedText.length());
-        System.out.printf("Удалено символов: %d%n", originalText.length() - processedText.length());
-
-        // Подсчет абзацев
-        int originalParagraphs = originalText.split("\n\n").length;
-        int processedParagraphs = processedText.split("\n\n").length;
-        System.out.printf("Абзацев исходных/обработанных: %d/%d%n", originalParagraphs, processedParagraphs);
-
-        // Подсчет предложений (простой способ)
-        int originalSentences = countSentences(originalText);
-        int processedSentences = countSentences(processedText);
-        System.out.printf("Предложений исходных/обработанных: %d/%d%n", originalSentences, processedSentences);
-
-        // Подсчет слов
-        int originalWords = countWords(originalText);
-        int processedWords = countWords(processedText);
-        System.out.printf("Слов исходных/обработанных: %d/%d%n", originalWords, processedWords);
-
-        System.out.println("=".repeat(50));
-    }
-
-    /**
-     * Подсчет предложений в тексте
-     */
-    private int countSentences(String text) {
-        if (text == null || text.trim().isEmpty()) {
-            return 0;
-        }
-
-        String[] sentences = text.split("[.!?]+\\s*");
-        return sentences.length;
-    }
-
-    /**
-     * Подсчет слов в тексте
-     */
-    private int countWords(String text) {
-        if (text == null || text.trim().isEmpty()) {
-            return 0;
-        }
-
-        String[] words = text.split("\\s+");
-        return words.length;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,49 @@
+package statistics;
+
+import parse.TokenSink;
+
+/**
+ * Приемник-обертка: считает границы локально и передает их сборщику
+ * в конце каждого абзаца, не обращаясь к общим счетчикам на каждом слове
+ */
+class CountingSink implements TokenSink {
+    private final StatisticsCollector collector;
+    private final TokenSink delegate;
+    private int sentences;
+    private int words;
+
+    CountingSink(StatisticsCollector collector, TokenSink delegate) {
+        this.collector = collector;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void paragraphStart() {
+        delegate.paragraphStart();
+    }
+
+    @Override
+    public void paragraphEnd() {
+        delegate.paragraphEnd();
+        collector.add(1, sentences, words);
+        sentences = 0;
+        words = 0;
+    }
+
+    @Override
+    public void sentenceStart() {
+        sentences++;
+        delegate.sentenceStart();
+    }
+
+    @Override
+    public void sentenceEnd() {
+        delegate.sentenceEnd();
+    }
+
+    @Override
+    public void word(CharSequence text, int start, int end) {
+        words++;
+        delegate.word(text, start, end);
+    }
+}
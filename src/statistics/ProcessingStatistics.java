@@ -0,0 +1,63 @@
+package statistics;
+
+/**
+ * Статистика обработки: показатели исходного и обработанного текста
+ */
+public class ProcessingStatistics {
+    private final String inputFile;
+    private final String outputFile;
+    private final TextStatistics original;
+    private final TextStatistics processed;
+
+    public ProcessingStatistics(String inputFile, String outputFile,
+                                TextStatistics original, TextStatistics processed) {
+        this.inputFile = inputFile;
+        this.outputFile = outputFile;
+        this.original = original;
+        this.processed = processed;
+    }
+
+    public String getInputFile() {
+        return inputFile;
+    }
+
+    public String getOutputFile() {
+        return outputFile;
+    }
+
+    public TextStatistics getOriginal() {
+        return original;
+    }
+
+    public TextStatistics getProcessed() {
+        return processed;
+    }
+
+    public long getRemovedCharacters() {
+        return original.getCharacters() - processed.getCharacters();
+    }
+
+    /**
+     * Отчет в том виде, в котором его печатает Runner
+     */
+    public String format() {
+        return "=== Статистика обработки ===" + System.lineSeparator()
+                + String.format("Входной файл: %s%n", inputFile)
+                + String.format("Выходной файл: %s%n", outputFile)
+                + String.format("Длина исходного текста: %d символов%n", original.getCharacters())
+                + String.format("Длина обработанного текста: %d символов%n", processed.getCharacters())
+                + String.format("Удалено символов: %d%n", getRemovedCharacters())
+                + String.format("Абзацев исходных/обработанных: %d/%d%n",
+                original.getParagraphs(), processed.getParagraphs())
+                + String.format("Предложений исходных/обработанных: %d/%d%n",
+                original.getSentences(), processed.getSentences())
+                + String.format("Слов исходных/обработанных: %d/%d%n", original.getWords(), processed.getWords())
+                + "=".repeat(50);
+    }
+
+    @Override
+    public String toString() {
+        return "ProcessingStatistics{input=" + inputFile + ", output=" + outputFile
+                + ", original=" + original + ", processed=" + processed + "}";
+    }
+}
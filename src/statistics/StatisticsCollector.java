@@ -0,0 +1,102 @@
+package statistics;
+
+import entity.CompactDocument;
+import entity.CompositeTool;
+import parse.TokenSink;
+import processors.NodeKind;
+import processors.TextProcessor;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Собирает статистику попутно с основной работой, без отдельного просмотра текста.
+ * При парсинге подсчет ведет обертка над TokenSink (см. counting), при обработке
+ * сборщик ставится последним этапом конвейера и считает абзацы, предложения
+ * и слова в уже обработанных предложениях. Счетчики потокобезопасны,
+ * поэтому один сборщик можно использовать при параллельном разборе
+ */
+public class StatisticsCollector extends TextProcessor {
+    private final LongAdder paragraphs = new LongAdder();
+    private final LongAdder sentences = new LongAdder();
+    private final LongAdder words = new LongAdder();
+
+    /**
+     * Оборачивает приемник сканера так, чтобы найденные границы учитывались в этом сборщике
+     */
+    public TokenSink counting(TokenSink delegate) {
+        return new CountingSink(this, delegate);
+    }
+
+    void add(long paragraphCount, long sentenceCount, long wordCount) {
+        paragraphs.add(paragraphCount);
+        sentences.add(sentenceCount);
+        words.add(wordCount);
+    }
+
+    @Override
+    public Set<NodeKind> getHandledNodes() {
+        return EnumSet.of(NodeKind.PARAGRAPH, NodeKind.SENTENCE);
+    }
+
+    @Override
+    public boolean isThreadSafe() {
+        return true;
+    }
+
+    @Override
+    public void process(CompositeTool composite) {
+        switch (composite.getType()) {
+            case PARAGRAPH -> paragraphs.increment();
+            case SENTENCE -> {
+                sentences.increment();
+                words.add(wordCount(composite));
+            }
+            default -> {
+            }
+        }
+        super.process(composite);
+    }
+
+    /**
+     * Число слов предложения; у непостроенного предложения слова в тексте
+     * разделены ровно одним пробелом, поэтому дети не строятся
+     */
+    private static int wordCount(CompositeTool sentence) {
+        if (sentence.isMaterialized()) {
+            return sentence.childCount();
+        }
+        String text = sentence.getText();
+        if (text.isEmpty()) {
+            return 0;
+        }
+        int count = 1;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == ' ') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Учитывает готовый документ в компактном представлении по его таблицам границ
+     */
+    public void count(CompactDocument document) {
+        add(document.paragraphCount(), document.sentenceCount(), document.wordCount());
+    }
+
+    /**
+     * Текущие значения счетчиков; число символов известно вызывающему (длина текста)
+     */
+    public TextStatistics snapshot(long characters) {
+        return new TextStatistics(paragraphs.sum(), sentences.sum(), words.sum(), characters);
+    }
+
+    public void reset() {
+        paragraphs.reset();
+        sentences.reset();
+        words.reset();
+    }
+}
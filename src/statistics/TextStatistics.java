@@ -0,0 +1,40 @@
+package statistics;
+
+/**
+ * Количество абзацев, предложений, слов и символов текста
+ */
+public class TextStatistics {
+    private final long paragraphs;
+    private final long sentences;
+    private final long words;
+    private final long characters;
+
+    public TextStatistics(long paragraphs, long sentences, long words, long characters) {
+        this.paragraphs = paragraphs;
+        this.sentences = sentences;
+        this.words = words;
+        this.characters = characters;
+    }
+
+    public long getParagraphs() {
+        return paragraphs;
+    }
+
+    public long getSentences() {
+        return sentences;
+    }
+
+    public long getWords() {
+        return words;
+    }
+
+    public long getCharacters() {
+        return characters;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TextStatistics{paragraphs=%d, sentences=%d, words=%d, characters=%d}",
+                paragraphs, sentences, words, characters);
+    }
+}
@@ -0,0 +1,168 @@
+package write;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Потоковый приемник текста: накапливает символы в буфере фиксированного размера
+ * и кодирует их с явно заданной кодировкой прямо в канал. Буферы переиспользуются,
+ * поэтому запись любого объема не требует собирать результат в одну строку
+ */
+public class TextTarget implements Appendable, Flushable, Closeable {
+    private static final Logger logger = LogManager.getLogger(TextTarget.class);
+
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder;
+    private final CharBuffer chars;
+    private final ByteBuffer bytes;
+    private long charsWritten = 0;
+    private long bytesWritten = 0;
+    private boolean closed = false;
+
+    public TextTarget(WritableByteChannel channel, Charset charset) {
+        this(channel, charset, DEFAULT_BUFFER_SIZE);
+    }
+
+    public TextTarget(WritableByteChannel channel, Charset charset, int bufferSize) {
+        this.channel = channel;
+        this.encoder = charset.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        this.chars = CharBuffer.allocate(bufferSize);
+        this.bytes = ByteBuffer.allocateDirect((int) Math.ceil(bufferSize * (double) encoder.maxBytesPerChar()));
+        logger.debug("Создан TextTarget, кодировка: {}, буфер: {} символов", charset, bufferSize);
+    }
+
+    @Override
+    public TextTarget append(CharSequence text) throws IOException {
+        CharSequence value = text == null ? "null" : text;
+        return append(value, 0, value.length());
+    }
+
+    @Override
+    public TextTarget append(CharSequence text, int start, int end) throws IOException {
+        if (text == null) {
+            text = "null";
+        }
+
+        int position = start;
+        while (position < end) {
+            if (!chars.hasRemaining()) {
+                encode(false);
+            }
+
+            int count = Math.min(end - position, chars.remaining());
+            if (text instanceof String string) {
+                chars.put(string, position, position + count);
+            } else {
+                for (int i = position; i < position + count; i++) {
+                    chars.put(text.charAt(i));
+                }
+            }
+            position += count;
+        }
+        charsWritten += end - start;
+        return this;
+    }
+
+    @Override
+    public TextTarget append(char c) throws IOException {
+        if (!chars.hasRemaining()) {
+            encode(false);
+        }
+        chars.put(c);
+        charsWritten++;
+        return this;
+    }
+
+    public long getCharsWritten() {
+        return charsWritten;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Кодирует и записывает в канал все накопленные символы
+     */
+    @Override
+    public void flush() throws IOException {
+        encode(false);
+    }
+
+    /**
+     * Сбрасывает данные файла на диск; для каналов, не являющихся файлами, только flush
+     */
+    public void force() throws IOException {
+        flush();
+        if (channel instanceof FileChannel fileChannel) {
+            fileChannel.force(true);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            encode(true);
+        } finally {
+            channel.close();
+        }
+        logger.debug("TextTarget закрыт, записано символов: {}, байт: {}", charsWritten, bytesWritten);
+    }
+
+    /**
+     * Кодирует символьный буфер в байтовый и выводит байты в канал.
+     * Незавершенная суррогатная пара остается в буфере до следующего вызова
+     */
+    private void encode(boolean endOfInput) throws IOException {
+        chars.flip();
+        try {
+            while (true) {
+                CoderResult result = encoder.encode(chars, bytes, endOfInput);
+                if (result.isError()) {
+                    result.throwException();
+                }
+                writeBytes();
+                if (result.isUnderflow()) {
+                    break;
+                }
+            }
+
+            if (endOfInput) {
+                while (encoder.flush(bytes).isOverflow()) {
+                    writeBytes();
+                }
+                writeBytes();
+            }
+        } finally {
+            chars.compact();
+        }
+    }
+
+    private void writeBytes() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+            bytesWritten += channel.write(bytes);
+        }
+        bytes.clear();
+    }
+}
@@ -4,12 +4,39 @@ import exception.FileProcessingException;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import entity.Component;
+
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class Writer {
     private static final Logger logger = LogManager.getLogger(Writer.class);
+
+    /**
+     * Содержимое, которое выводится прямо в приемник по частям
+     */
+    public interface Content {
+        void writeTo(Appendable out) throws IOException, FileProcessingException;
+    }
+
+    /**
+     * Двоичное содержимое, которое записывается прямо в канал файла
+     */
+    public interface ChannelContent {
+        void writeTo(FileChannel channel) throws IOException, FileProcessingException;
+    }
+
     public static void writeFile(String filename, String content) throws FileProcessingException {
         logger.debug("Попытка записи в файл: {}", filename);
 
@@ -32,5 +59,170 @@ public class Writer {
             throw new FileProcessingException("Ошибка при записи в файл: " + filename, e);
         }
     }
-}
 
+    /**
+     * Открывает файл для потоковой записи с явно заданной кодировкой
+     */
+    public static TextTarget openFile(String filename, Charset charset) throws FileProcessingException {
+        checkFilename(filename);
+        try {
+            return new TextTarget(FileChannel.open(Path.of(filename), StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING), charset);
+        } catch (IOException e) {
+            logger.error("Ошибка при открытии файла для записи: {}", filename, e);
+            throw new FileProcessingException("Ошибка при открытии файла для записи: " + filename, e);
+        }
+    }
+
+    /**
+     * Записывает текст компонента без сборки его в одну строку.
+     * Возвращает число записанных символов
+     */
+    public static long writeComponent(String filename, Component component, Charset charset,
+                                      boolean atomic, boolean fsync) throws FileProcessingException {
+        return writeFile(filename, component::getText, charset, atomic, fsync);
+    }
+
+    /**
+     * Записывает содержимое в файл через канал с переиспользуемыми буферами.
+     * При atomic запись идет во временный файл того же каталога, который затем
+     * переименовывается в целевой, так что читатели не увидят недописанный файл.
+     * При fsync данные сбрасываются на диск до переименования.
+     * Возвращает число записанных символов
+     */
+    public static long writeFile(String filename, Content content, Charset charset,
+                                 boolean atomic, boolean fsync) throws FileProcessingException {
+        logger.debug("Попытка записи в файл: {}, кодировка: {}, атомарно: {}, fsync: {}",
+                filename, charset, atomic, fsync);
+        checkFilename(filename);
+
+        Path target = Path.of(filename).toAbsolutePath();
+        Path file = target;
+        try {
+            if (atomic) {
+                file = createTemporary(target);
+            }
+
+            long written;
+            try (TextTarget out = openFile(file.toString(), charset)) {
+                content.writeTo(out);
+                if (fsync) {
+                    out.force();
+                }
+                written = out.getCharsWritten();
+            }
+
+            if (atomic) {
+                moveAtomically(file, target);
+            }
+            logger.info("Файл успешно записан: {}, размер: {} символов", filename, written);
+            return written;
+
+        } catch (IOException e) {
+            deleteTemporary(file, target);
+            logger.error("Ошибка при записи в файл: {}", filename, e);
+            throw new FileProcessingException("Ошибка при записи в файл: " + filename, e);
+        } catch (FileProcessingException | RuntimeException e) {
+            deleteTemporary(file, target);
+            throw e;
+        }
+    }
+
+    /**
+     * Записывает двоичное содержимое в файл; atomic и fsync - как у writeFile.
+     * Возвращает число записанных байт
+     */
+    public static long writeBytes(String filename, ChannelContent content,
+                                  boolean atomic, boolean fsync) throws FileProcessingException {
+        logger.debug("Попытка записи двоичного файла: {}, атомарно: {}, fsync: {}", filename, atomic, fsync);
+        checkFilename(filename);
+
+        Path target = Path.of(filename).toAbsolutePath();
+        Path file = target;
+        try {
+            if (atomic) {
+                file = createTemporary(target);
+            }
+
+            long written;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                content.writeTo(channel);
+                if (fsync) {
+                    channel.force(true);
+                }
+                written = channel.position();
+            }
+
+            if (atomic) {
+                moveAtomically(file, target);
+            }
+            logger.info("Двоичный файл успешно записан: {}, размер: {} байт", filename, written);
+            return written;
+
+        } catch (IOException e) {
+            deleteTemporary(file, target);
+            logger.error("Ошибка при записи в файл: {}", filename, e);
+            throw new FileProcessingException("Ошибка при записи в файл: " + filename, e);
+        } catch (FileProcessingException | RuntimeException e) {
+            deleteTemporary(file, target);
+            throw e;
+        }
+    }
+
+    /**
+     * Создает временный файл рядом с target. В отличие от Files.createTempFile (права 0600)
+     * файл получает права существующего target, а если его нет - права по умолчанию с учетом umask,
+     * поэтому после переименования права результата те же, что при обычной записи
+     */
+    private static Path createTemporary(Path target) throws IOException {
+        Path file;
+        while (true) {
+            file = target.resolveSibling(target.getFileName() + "."
+                    + Long.toUnsignedString(ThreadLocalRandom.current().nextLong(), 36) + ".tmp");
+            try {
+                Files.createFile(file);
+                break;
+            } catch (FileAlreadyExistsException e) {
+                // имя занято, пробуем другое
+            }
+        }
+
+        try {
+            if (Files.exists(target)
+                    && Files.getFileStore(file).supportsFileAttributeView(PosixFileAttributeView.class)) {
+                Files.setPosixFilePermissions(file, Files.getPosixFilePermissions(target));
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    private static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            logger.warn("Файловая система не поддерживает атомарное переименование: {}", target);
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void deleteTemporary(Path file, Path target) {
+        if (!file.equals(target)) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Не удалось удалить временный файл: {}", file, e);
+            }
+        }
+    }
+
+    private static void checkFilename(String filename) throws FileProcessingException {
+        if (filename == null || filename.trim().isEmpty()) {
+            logger.error("Имя файла не может быть пустым");
+            throw new FileProcessingException("Имя файла не может быть пустым");
+        }
+    }
+}